@@ -0,0 +1,63 @@
+package bank;
+
+public class Account {
+    
+    private String id;
+    private long balance;
+    private int transactions;
+    private Customer owner;
+    
+    public Account(String id, Customer owner) {
+        this.id = id;
+        this.owner = owner;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public long getBalance() {
+        return balance;
+    }
+    
+    public void setBalance(long balance) {
+        this.balance = balance;
+    }
+    
+    public int getTransactions() {
+        return transactions;
+    }
+    
+    public Customer getOwner() {
+        return owner;
+    }
+    
+    public void setOwner(Customer owner) {
+        this.owner = owner;
+    }
+    
+    public void deposit(long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        balance = balance + amount;
+        transactions++;
+    }
+    
+    public boolean withdraw(long amount) {
+        if (amount <= 0 || amount > balance) {
+            return false;
+        }
+        balance = balance - amount;
+        transactions++;
+        return true;
+    }
+    
+    public long interest(double rate) {
+        long value = (long)(balance * rate);
+        if (owner.isPremium()) {
+            value = value * 2;
+        }
+        return value;
+    }
+}
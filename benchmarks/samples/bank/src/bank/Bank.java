@@ -0,0 +1,69 @@
+package bank;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Bank {
+    
+    private String name;
+    private List<Account> accounts = new ArrayList<>();
+    private long fee;
+    
+    public Bank(String name) {
+        this.name = name;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getFee() {
+        return fee;
+    }
+    
+    public void setFee(long fee) {
+        this.fee = fee;
+    }
+    
+    public Account open(Customer customer, String id) {
+        Account account = new Account(id, customer);
+        if (!customer.isAdult()) {
+            account.setOwner(customer);
+        }
+        accounts.add(account);
+        return account;
+    }
+    
+    public Account findAccount(String id) {
+        for (Account account : accounts) {
+            if (account.getId().equals(id)) {
+                return account;
+            }
+        }
+        return null;
+    }
+    
+    public boolean transfer(Account from, Account to, long amount) {
+        long total = amount + fee;
+        if (!from.withdraw(total)) {
+            return false;
+        }
+        to.deposit(amount);
+        return true;
+    }
+    
+    public long totalBalance() {
+        long total = 0;
+        for (Account account : accounts) {
+            total = total + account.getBalance();
+        }
+        return total;
+    }
+    
+    public void payInterest(double rate) {
+        for (Account account : accounts) {
+            long value = account.interest(rate);
+            account.deposit(value);
+        }
+    }
+}
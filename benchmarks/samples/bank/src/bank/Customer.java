@@ -0,0 +1,41 @@
+package bank;
+
+public class Customer {
+    
+    private String name;
+    private int age;
+    private boolean premium;
+    
+    public Customer(String name, int age) {
+        this.name = name;
+        this.age = age;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public int getAge() {
+        return age;
+    }
+    
+    public void setAge(int age) {
+        this.age = age;
+    }
+    
+    public boolean isPremium() {
+        return premium;
+    }
+    
+    public void setPremium(boolean premium) {
+        this.premium = premium;
+    }
+    
+    public boolean isAdult() {
+        return age >= 20;
+    }
+}
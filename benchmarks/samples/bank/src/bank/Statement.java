@@ -0,0 +1,42 @@
+package bank;
+
+public class Statement {
+    
+    private int width = 40;
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public void setWidth(int width) {
+        this.width = width;
+    }
+    
+    public String render(Account account) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(line());
+        buf.append(account.getId()).append(" ").append(account.getOwner().getName()).append("\n");
+        buf.append("balance: ").append(account.getBalance()).append("\n");
+        buf.append("transactions: ").append(account.getTransactions()).append("\n");
+        buf.append(line());
+        return buf.toString();
+    }
+    
+    public int countLines(String text) {
+        int num = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                num++;
+            }
+        }
+        return num;
+    }
+    
+    private String line() {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < width; i++) {
+            buf.append('-');
+        }
+        return buf.append('\n').toString();
+    }
+}
@@ -0,0 +1,46 @@
+package bank;
+
+public class TransferService {
+    
+    private Bank bank;
+    private Statement statement = new Statement();
+    private int failures;
+    
+    public TransferService(Bank bank) {
+        this.bank = bank;
+    }
+    
+    public int getFailures() {
+        return failures;
+    }
+    
+    public boolean process(String fromId, String toId, long amount) {
+        Account from = bank.findAccount(fromId);
+        Account to = bank.findAccount(toId);
+        if (from == null || to == null) {
+            failures++;
+            return false;
+        }
+        boolean result = bank.transfer(from, to, amount);
+        if (!result) {
+            failures++;
+        }
+        return result;
+    }
+    
+    public String report(String id) {
+        Account account = bank.findAccount(id);
+        if (account == null) {
+            return "";
+        }
+        String text = statement.render(account);
+        int lines = statement.countLines(text);
+        return lines + "\n" + text;
+    }
+    
+    public long monthEnd(double rate) {
+        bank.payInterest(rate);
+        long total = bank.totalBalance();
+        return total - bank.getFee();
+    }
+}
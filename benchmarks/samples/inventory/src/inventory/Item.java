@@ -0,0 +1,43 @@
+package inventory;
+
+public class Item {
+    
+    private String code;
+    private String name;
+    private int price;
+    private int weight;
+    
+    public Item(String code, String name, int price) {
+        this.code = code;
+        this.name = name;
+        this.price = price;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public int getPrice() {
+        return price;
+    }
+    
+    public void setPrice(int price) {
+        this.price = price;
+    }
+    
+    public int getWeight() {
+        return weight;
+    }
+    
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,45 @@
+package inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Order {
+    
+    private int number;
+    private List<Item> items = new ArrayList<>();
+    private List<Integer> quantities = new ArrayList<>();
+    private boolean shipped;
+    
+    public Order(int number) {
+        this.number = number;
+    }
+    
+    public int getNumber() {
+        return number;
+    }
+    
+    public boolean isShipped() {
+        return shipped;
+    }
+    
+    public void setShipped(boolean shipped) {
+        this.shipped = shipped;
+    }
+    
+    public void add(Item item, int quantity) {
+        items.add(item);
+        quantities.add(quantity);
+    }
+    
+    public int size() {
+        return items.size();
+    }
+    
+    public Item getItem(int index) {
+        return items.get(index);
+    }
+    
+    public int getQuantity(int index) {
+        return quantities.get(index);
+    }
+}
@@ -0,0 +1,47 @@
+package inventory;
+
+public class OrderService {
+    
+    private Warehouse warehouse;
+    private PriceCalculator calculator = new PriceCalculator();
+    private int rejected;
+    
+    public OrderService(Warehouse warehouse) {
+        this.warehouse = warehouse;
+    }
+    
+    public int getRejected() {
+        return rejected;
+    }
+    
+    public boolean accept(Order order) {
+        for (int i = 0; i < order.size(); i++) {
+            Stock stock = warehouse.find(order.getItem(i).getCode());
+            if (stock == null || !stock.reserve(order.getQuantity(i))) {
+                rejected++;
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public int ship(Order order) {
+        if (!accept(order)) {
+            return 0;
+        }
+        for (int i = 0; i < order.size(); i++) {
+            Stock stock = warehouse.find(order.getItem(i).getCode());
+            stock.ship(order.getQuantity(i));
+        }
+        order.setShipped(true);
+        return calculator.total(order);
+    }
+    
+    public int restock(Item item, int quantity) {
+        if (!warehouse.store(item, quantity)) {
+            rejected++;
+            return warehouse.totalQuantity();
+        }
+        return warehouse.find(item.getCode()).available();
+    }
+}
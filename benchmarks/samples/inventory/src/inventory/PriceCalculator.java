@@ -0,0 +1,39 @@
+package inventory;
+
+public class PriceCalculator {
+    
+    private int taxRate = 10;
+    private int discount;
+    
+    public int getTaxRate() {
+        return taxRate;
+    }
+    
+    public void setTaxRate(int taxRate) {
+        this.taxRate = taxRate;
+    }
+    
+    public int getDiscount() {
+        return discount;
+    }
+    
+    public void setDiscount(int discount) {
+        this.discount = discount;
+    }
+    
+    public int subtotal(Order order) {
+        int total = 0;
+        for (int i = 0; i < order.size(); i++) {
+            total = total + order.getItem(i).getPrice() * order.getQuantity(i);
+        }
+        return total;
+    }
+    
+    public int total(Order order) {
+        int value = subtotal(order) - discount;
+        if (value < 0) {
+            value = 0;
+        }
+        return value + value * taxRate / 100;
+    }
+}
@@ -0,0 +1,47 @@
+package inventory;
+
+public class Stock {
+    
+    private Item item;
+    private int quantity;
+    private int reserved;
+    
+    public Stock(Item item, int quantity) {
+        this.item = item;
+        this.quantity = quantity;
+    }
+    
+    public Item getItem() {
+        return item;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+    
+    public int getReserved() {
+        return reserved;
+    }
+    
+    public int available() {
+        return quantity - reserved;
+    }
+    
+    public boolean reserve(int amount) {
+        if (amount > available()) {
+            return false;
+        }
+        reserved = reserved + amount;
+        return true;
+    }
+    
+    public void ship(int amount) {
+        int shipped = Math.min(amount, reserved);
+        reserved = reserved - shipped;
+        quantity = quantity - shipped;
+    }
+}
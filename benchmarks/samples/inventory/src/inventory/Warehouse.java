@@ -0,0 +1,61 @@
+package inventory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class Warehouse {
+    
+    private String location;
+    private Map<String, Stock> stocks = new HashMap<>();
+    private int capacity;
+    
+    public Warehouse(String location, int capacity) {
+        this.location = location;
+        this.capacity = capacity;
+    }
+    
+    public String getLocation() {
+        return location;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    public Stock find(String code) {
+        return stocks.get(code);
+    }
+    
+    public boolean store(Item item, int quantity) {
+        if (totalQuantity() + quantity > capacity) {
+            return false;
+        }
+        Stock stock = stocks.get(item.getCode());
+        if (stock == null) {
+            stocks.put(item.getCode(), new Stock(item, quantity));
+        } else {
+            stock.setQuantity(stock.getQuantity() + quantity);
+        }
+        return true;
+    }
+    
+    public int totalQuantity() {
+        int total = 0;
+        for (Stock stock : stocks.values()) {
+            total = total + stock.getQuantity();
+        }
+        return total;
+    }
+    
+    public int totalWeight() {
+        int total = 0;
+        for (Stock stock : stocks.values()) {
+            total = total + stock.getQuantity() * stock.getItem().getWeight();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jtool.cfg.JVariableReference;
+import org.jtool.srcmodel.JavaClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AccessorBenchmark {
+    
+    private List<JavaClass> classes = new ArrayList<>();
+    private List<JVariableReference> inFields = new ArrayList<>();
+    private List<JavaClass> outClasses = new ArrayList<>();
+    private List<JVariableReference> outFields = new ArrayList<>();
+    
+    // 呼び出し先で実際に検出されたフィールドをそのまま問い合わせに使う
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkProject project) {
+        for (int i = 0; i < project.calleeMethods.size(); i++) {
+            JavaClass jclass = project.calleeMethods.get(i).getDeclaringClass();
+            VariableFinder finder = new VariableFinder(project.jproject, project.calleeMethods.get(i), project.calleeCFGs.get(i));
+            for (ProjectVariable var : finder.getInVariables()) {
+                if (var.isField()) {
+                    classes.add(jclass);
+                    inFields.add(var.getVariable());
+                }
+            }
+            for (ProjectVariable var : finder.getOutVariables()) {
+                if (var.isField()) {
+                    outClasses.add(jclass);
+                    outFields.add(var.getVariable());
+                }
+            }
+        }
+    }
+    
+    @Benchmark
+    public void scan(BenchmarkProject project, Blackhole bh) {
+        for (int i = 0; i < inFields.size(); i++) {
+            bh.consume(ProjectVariable.findSetter(project.jproject, classes.get(i), inFields.get(i)));
+        }
+        for (int i = 0; i < outFields.size(); i++) {
+            bh.consume(ProjectVariable.findGetter(project.jproject, outClasses.get(i), outFields.get(i)));
+        }
+    }
+    
+    @Benchmark
+    public void index(BenchmarkProject project, Blackhole bh) {
+        AnalysisCache cache = new AnalysisCache(project.jproject);
+        for (int i = 0; i < inFields.size(); i++) {
+            bh.consume(cache.getAccessorIndex(classes.get(i)).getSetter(inFields.get(i)));
+        }
+        for (int i = 0; i < outFields.size(); i++) {
+            bh.consume(cache.getAccessorIndex(outClasses.get(i)).getGetter(outFields.get(i)));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jtool.cfg.CFG;
+import org.jtool.jxplatform.builder.ModelBuilder;
+import org.jtool.jxplatform.builder.ModelBuilderBatch;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaProject;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// 各ベンチマークで共有するサンプルプロジェクトのモデル
+@State(Scope.Benchmark)
+public class BenchmarkProject {
+    
+    @Param({"bank", "inventory"})
+    public String sample;
+    
+    ModelBuilder builder;
+    JavaProject jproject;
+    CallGraph callGraph;
+    ProjectStatistics statistics;
+    List<MethodSeq> methodSeqs;
+    List<JavaMethod> calleeMethods = new ArrayList<>();
+    List<CFG> calleeCFGs = new ArrayList<>();
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        builder = new ModelBuilderBatch();
+        builder.analyzeBytecode(false);
+        builder.useCache(false);
+        builder.setConsoleVisible(false);
+        
+        List<JavaProject> projects = builder.build(sample, resolve(sample).toString());
+        if (projects.isEmpty()) {
+            throw new IllegalStateException("Cannot build sample project: " + sample);
+        }
+        jproject = projects.get(0);
+        callGraph = CallGraph.build(jproject);
+        MethodFinder methodFinder = new MethodFinder();
+        methodFinder.setCallGraph(callGraph);
+        methodSeqs = methodFinder.stream(jproject, 1, 1).collect(Collectors.toList());
+        statistics = methodFinder.getStatistics();
+        
+        // 計測に CFG の構築を含めないよう，呼び出し先の CFG は先に作っておく
+        Set<JavaMethod> methods = new LinkedHashSet<>();
+        for (MethodSeq seq : methodSeqs) {
+            methods.add(seq.callee());
+        }
+        for (JavaMethod jm : methods) {
+            CFG cfg = builder.getCCFG(jm.getDeclaringClass()).getCFG(jm.getQualifiedName().fqn());
+            if (cfg != null) {
+                calleeMethods.add(jm);
+                calleeCFGs.add(cfg);
+            }
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        builder.unbuild();
+    }
+    
+    static Path resolve(String sample) {
+        return Paths.get(System.getProperty("method_searcher.samples", "samples"), sample);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MethodFinderBenchmark {
+    
+    @Param({"1", "2", "3"})
+    public int chain;
+    
+    @Benchmark
+    public CallGraph buildCallGraph(BenchmarkProject project) {
+        return CallGraph.build(project.jproject);
+    }
+    
+    // 構築済みのグラフと統計を渡し，候補の収集だけを測る（ストリームは消費しない）
+    @Benchmark
+    public Object collectCandidates(BenchmarkProject project) {
+        return createMethodFinder(project).stream(project.jproject, 1, chain);
+    }
+    
+    @Benchmark
+    public long enumerateChains(BenchmarkProject project) {
+        return createMethodFinder(project).stream(project.jproject, 1, chain).count();
+    }
+    
+    private static MethodFinder createMethodFinder(BenchmarkProject project) {
+        MethodFinder methodFinder = new MethodFinder();
+        methodFinder.setCallGraph(project.callGraph);
+        methodFinder.setStatistics(project.statistics);
+        return methodFinder;
+    }
+}
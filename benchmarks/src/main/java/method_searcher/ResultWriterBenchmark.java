@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// 結果の書き出しだけを測るので，サンプルプロジェクトは使わない
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResultWriterBenchmark {
+    
+    @Param({"10000", "100000"})
+    public int pairs;
+    
+    @Param({"TEXT", "JSONL", "BOTH"})
+    public ResultWriter.Format format;
+    
+    private Path dir;
+    private String[] callerNames;
+    private String[] calleeNames;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("method_searcher-bench");
+        callerNames = new String[pairs];
+        calleeNames = new String[pairs];
+        for (int i = 0; i < pairs; i++) {
+            callerNames[i] = "sample.Caller" + (i % 100) + "#run" + i + "( )";
+            calleeNames[i] = "sample.Callee" + (i % 50) + "#apply" + (i % 500) + "( int java.lang.String )";
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>)files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+    
+    @Benchmark
+    public long write() throws IOException {
+        try (ResultWriter writer = ResultWriter.create(dir, "bench", format)) {
+            for (int i = 0; i < pairs; i++) {
+                writer.write(callerNames[i], calleeNames[i]);
+            }
+            writer.finish(Collections.singletonMap("Valid Method Pairs", writer.getPairNum()));
+            return writer.getPairNum();
+        }
+    }
+}
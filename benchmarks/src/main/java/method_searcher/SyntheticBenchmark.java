@@ -0,0 +1,131 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.jtool.jxplatform.builder.ModelBuilder;
+import org.jtool.jxplatform.builder.ModelBuilderBatch;
+import org.jtool.srcmodel.JavaProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * 生成したプロジェクトでグラフの形と型の構成を変えながら測る．
+ * 組み合わせは多いので，普段は -p で絞って実行する（例: -p classes=10000 -p chain=3）．
+ * 10000 クラスを超える規模（手元の最大のプロジェクトの 10〜100 倍）は JMH の繰り返しに向かないので，
+ * SyntheticProjectGenerator の main で生成し（例: <dir> -classes 100000 -depth 8 -accessors 0.9 -objectReturns 0.6），
+ * そのディレクトリを SearchResultsChecker に -progress 付きで与えて _metrics.json の値を比べる．
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SyntheticBenchmark {
+    
+    @Param({"200", "1000", "10000"})
+    public int classes;
+    
+    @Param({"2", "4"})
+    public int fanOut;
+    
+    @Param({"1", "4"})
+    public int fanIn;
+    
+    @Param({"4", "8"})
+    public int depth;
+    
+    @Param({"1", "3"})
+    public int chain;
+    
+    // getter と setter が多いと出力変数が増え，アクセサの索引と CalleeMethod の変数の収集が重くなる
+    @Param({"0.1", "0.9"})
+    public double accessorRatio;
+    
+    // Object 型の戻り値は型のメンバに展開されるので，多いと展開の負荷が増える
+    @Param({"0.1", "0.6"})
+    public double objectReturnRatio;
+    
+    private Path dir;
+    private ModelBuilder builder;
+    private JavaProject jproject;
+    private CallGraph callGraph;
+    private ProjectStatistics statistics;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticProjectGenerator generator = new SyntheticProjectGenerator();
+        generator.setClassNum(classes);
+        generator.setFanOut(fanOut);
+        generator.setFanIn(fanIn);
+        generator.setDepth(depth);
+        generator.setAccessorRatio(accessorRatio);
+        generator.setObjectReturnRatio(objectReturnRatio);
+        dir = Files.createTempDirectory("method_searcher-synthetic");
+        generator.generate(dir);
+        
+        builder = new ModelBuilderBatch();
+        builder.analyzeBytecode(false);
+        builder.useCache(false);
+        builder.setConsoleVisible(false);
+        List<JavaProject> projects = builder.build("synthetic", dir.toString());
+        jproject = projects.get(0);
+        callGraph = CallGraph.build(jproject);
+        // 統計は系列を列挙する前に集められる．計測に含めないよう，ここで一度だけ集めておく
+        MethodFinder methodFinder = new MethodFinder();
+        methodFinder.setCallGraph(callGraph);
+        methodFinder.stream(jproject, 1, 0);
+        statistics = methodFinder.getStatistics();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        builder.unbuild();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>)files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+    
+    @Benchmark
+    public long enumerateChains() {
+        return createMethodFinder().stream(jproject, 1, chain).count();
+    }
+    
+    @Benchmark
+    public void calleeMethods(Blackhole bh) {
+        AnalysisCache cache = new AnalysisCache(jproject);
+        createMethodFinder().stream(jproject, 1, chain).forEach(seq -> bh.consume(new CalleeMethod(seq, cache).getOutVariables()));
+    }
+    
+    private MethodFinder createMethodFinder() {
+        MethodFinder methodFinder = new MethodFinder();
+        methodFinder.setCallGraph(callGraph);
+        methodFinder.setStatistics(statistics);
+        return methodFinder;
+    }
+}
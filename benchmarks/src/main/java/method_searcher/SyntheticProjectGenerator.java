@@ -0,0 +1,352 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// 規模と呼び出しグラフの形を指定してコンパイル可能な Java プロジェクトを生成する
+public class SyntheticProjectGenerator {
+    
+    private final static String PACKAGE = "synthetic";
+    
+    private int classNum = 100;
+    private int methodNum = 10;
+    private int fieldNum = 4;
+    private int fanOut = 2;
+    private int fanIn = 2;
+    private int depth = 5;
+    private double accessorRatio = 0.5;
+    private double objectFieldRatio = 0.25;
+    private double objectParamRatio = 0.5;
+    private double objectReturnRatio = 0.25;
+    private double voidReturnRatio = 0.25;
+    private long seed = 1;
+    
+    public int getClassNum() {
+        return classNum;
+    }
+    
+    public void setClassNum(int classNum) {
+        this.classNum = Math.max(1, classNum);
+    }
+    
+    public int getMethodNum() {
+        return methodNum;
+    }
+    
+    public void setMethodNum(int methodNum) {
+        this.methodNum = Math.max(1, methodNum);
+    }
+    
+    public int getFieldNum() {
+        return fieldNum;
+    }
+    
+    public void setFieldNum(int fieldNum) {
+        this.fieldNum = Math.max(1, fieldNum);
+    }
+    
+    public int getFanOut() {
+        return fanOut;
+    }
+    
+    public void setFanOut(int fanOut) {
+        this.fanOut = Math.max(0, fanOut);
+    }
+    
+    public int getFanIn() {
+        return fanIn;
+    }
+    
+    public void setFanIn(int fanIn) {
+        this.fanIn = Math.max(1, fanIn);
+    }
+    
+    public int getDepth() {
+        return depth;
+    }
+    
+    public void setDepth(int depth) {
+        this.depth = Math.max(1, depth);
+    }
+    
+    public double getAccessorRatio() {
+        return accessorRatio;
+    }
+    
+    public void setAccessorRatio(double accessorRatio) {
+        this.accessorRatio = accessorRatio;
+    }
+    
+    public double getObjectFieldRatio() {
+        return objectFieldRatio;
+    }
+    
+    public void setObjectFieldRatio(double objectFieldRatio) {
+        this.objectFieldRatio = objectFieldRatio;
+    }
+    
+    public double getObjectParamRatio() {
+        return objectParamRatio;
+    }
+    
+    public void setObjectParamRatio(double objectParamRatio) {
+        this.objectParamRatio = objectParamRatio;
+    }
+    
+    public double getObjectReturnRatio() {
+        return objectReturnRatio;
+    }
+    
+    public void setObjectReturnRatio(double objectReturnRatio) {
+        this.objectReturnRatio = objectReturnRatio;
+    }
+    
+    public double getVoidReturnRatio() {
+        return voidReturnRatio;
+    }
+    
+    public void setVoidReturnRatio(double voidReturnRatio) {
+        this.voidReturnRatio = voidReturnRatio;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    /*
+     * クラスを depth 個の層に分け，各メソッドは次の層のメソッドを fanOut 個呼び出す．
+     * 呼び出し先は次の層の先頭のメソッドに巡回して割り当てるので，呼び出し連鎖の長さは
+     * 高々 depth となり，呼び出される側のメソッドはおよそ fanIn 個の呼び出し元を持つ．
+     */
+    public int generate(Path dir) throws IOException {
+        Random random = new Random(seed);
+        Shape[] shapes = new Shape[classNum];
+        for (int c = 0; c < classNum; c++) {
+            shapes[c] = new Shape(random);
+        }
+        
+        int[] layerBegin = new int[depth + 1];
+        for (int layer = 0; layer <= depth; layer++) {
+            layerBegin[layer] = (int)((long)classNum * layer / depth);
+        }
+        // 層ごとに，呼び出しが fanIn 個ずつ集まるよう呼び出し先の数を絞る
+        int[] pool = new int[depth];
+        for (int layer = 1; layer < depth; layer++) {
+            long calls = (long)(layerBegin[layer] - layerBegin[layer - 1]) * methodNum * fanOut;
+            long callees = (long)(layerBegin[layer + 1] - layerBegin[layer]) * methodNum;
+            pool[layer] = (int)Math.max(1, Math.min(callees, (calls + fanIn - 1) / fanIn));
+        }
+        int[] next = new int[depth];
+        
+        Path srcDir = dir.resolve("src").resolve(PACKAGE);
+        Files.createDirectories(srcDir);
+        for (int c = 0; c < classNum; c++) {
+            int layer = layerOf(c, layerBegin);
+            try (BufferedWriter writer = Files.newBufferedWriter(srcDir.resolve(className(c) + ".java"), StandardCharsets.UTF_8)) {
+                writeClass(writer, c, layer, shapes, layerBegin, pool, next);
+            }
+        }
+        return classNum;
+    }
+    
+    private int layerOf(int c, int[] layerBegin) {
+        for (int layer = 0; layer < depth; layer++) {
+            if (c < layerBegin[layer + 1]) {
+                return layer;
+            }
+        }
+        return depth - 1;
+    }
+    
+    private void writeClass(BufferedWriter writer, int c, int layer, Shape[] shapes, int[] layerBegin, int[] pool,
+            int[] next) throws IOException {
+        Shape shape = shapes[c];
+        writer.write("package " + PACKAGE + ";\n\n");
+        writer.write("public class " + className(c) + " {\n");
+        
+        for (int f = 0; f < fieldNum; f++) {
+            writer.write("    private " + shape.fieldTypes[f] + " f" + f + ";\n");
+        }
+        writer.write("\n    public " + className(c) + "() {\n    }\n");
+        
+        for (int f = 0; f < fieldNum; f++) {
+            if (shape.accessors[f]) {
+                String type = shape.fieldTypes[f];
+                writer.write("\n    public " + type + " getF" + f + "() {\n        return f" + f + ";\n    }\n");
+                writer.write("\n    public void setF" + f + "(" + type + " value) {\n        this.f" + f + " = value;\n    }\n");
+            }
+        }
+        
+        int calleeBegin = layer + 1 < depth ? layerBegin[layer + 1] : -1;
+        int calleeEnd = layer + 1 < depth ? layerBegin[layer + 2] : -1;
+        for (int m = 0; m < methodNum; m++) {
+            writer.write("\n");
+            writeMethod(writer, c, m, shapes, calleeBegin, calleeEnd, layer, pool, next);
+        }
+        writer.write("}\n");
+    }
+    
+    private void writeMethod(BufferedWriter writer, int c, int m, Shape[] shapes, int calleeBegin, int calleeEnd,
+            int layer, int[] pool, int[] next) throws IOException {
+        Shape shape = shapes[c];
+        int primitiveField = shape.primitiveField();
+        String param = shape.objectParams[m] ? className(c) + " p" : "int p";
+        writer.write("    public " + returnType(c, m, shapes) + " m" + m + "(" + param + ") {\n");
+        if (shape.objectParams[m]) {
+            writer.write("        int v = p.hashCode();\n");
+        } else {
+            writer.write("        int v = p;\n");
+        }
+        if (primitiveField >= 0) {
+            writer.write("        v = v + f" + primitiveField + ";\n");
+        }
+        
+        if (calleeBegin >= 0 && calleeEnd > calleeBegin) {
+            for (int k = 0; k < fanOut; k++) {
+                int slot = next[layer + 1]++ % pool[layer + 1];
+                int callee = calleeBegin + slot / methodNum;
+                int calleeMethod = slot % methodNum;
+                String arg = shapes[callee].objectParams[calleeMethod] ? "new " + className(callee) + "()" : "v";
+                String call = "new " + className(callee) + "().m" + calleeMethod + "(" + arg + ")";
+                String calleeType = returnType(callee, calleeMethod, shapes);
+                if (calleeType.equals("int")) {
+                    writer.write("        v = v + " + call + ";\n");
+                } else {
+                    writer.write("        " + call + ";\n");
+                }
+            }
+        }
+        
+        if (primitiveField >= 0) {
+            writer.write("        f" + primitiveField + " = v;\n");
+        }
+        String type = returnType(c, m, shapes);
+        if (type.equals("int")) {
+            writer.write("        return v;\n");
+        } else if (!type.equals("void")) {
+            writer.write("        return this;\n");
+        }
+        writer.write("    }\n");
+    }
+    
+    private String returnType(int c, int m, Shape[] shapes) {
+        switch (shapes[c].returns[m]) {
+            case OBJECT:
+                return className(c);
+            case VOID:
+                return "void";
+            default:
+                return "int";
+        }
+    }
+    
+    private static String className(int c) {
+        return "C" + c;
+    }
+    
+    private enum Return {
+        PRIMITIVE, OBJECT, VOID,
+    }
+    
+    private class Shape {
+        final String[] fieldTypes = new String[fieldNum];
+        final boolean[] accessors = new boolean[fieldNum];
+        final boolean[] objectParams = new boolean[methodNum];
+        final Return[] returns = new Return[methodNum];
+        
+        Shape(Random random) {
+            for (int f = 0; f < fieldNum; f++) {
+                fieldTypes[f] = random.nextDouble() < objectFieldRatio ? "String" : "int";
+                accessors[f] = random.nextDouble() < accessorRatio;
+            }
+            for (int m = 0; m < methodNum; m++) {
+                objectParams[m] = random.nextDouble() < objectParamRatio;
+                double r = random.nextDouble();
+                if (r < voidReturnRatio) {
+                    returns[m] = Return.VOID;
+                } else if (r < voidReturnRatio + objectReturnRatio) {
+                    returns[m] = Return.OBJECT;
+                } else {
+                    returns[m] = Return.PRIMITIVE;
+                }
+            }
+        }
+        
+        int primitiveField() {
+            for (int f = 0; f < fieldNum; f++) {
+                if (fieldTypes[f].equals("int")) {
+                    return f;
+                }
+            }
+            return -1;
+        }
+    }
+    
+    public static SyntheticProjectGenerator parse(String[] args, int from) {
+        SyntheticProjectGenerator generator = new SyntheticProjectGenerator();
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-classes")) {
+                generator.setClassNum(Integer.parseInt(value(args, ++i)));
+            } else if (arg.equals("-methods")) {
+                generator.setMethodNum(Integer.parseInt(value(args, ++i)));
+            } else if (arg.equals("-fields")) {
+                generator.setFieldNum(Integer.parseInt(value(args, ++i)));
+            } else if (arg.equals("-fanOut")) {
+                generator.setFanOut(Integer.parseInt(value(args, ++i)));
+            } else if (arg.equals("-fanIn")) {
+                generator.setFanIn(Integer.parseInt(value(args, ++i)));
+            } else if (arg.equals("-depth")) {
+                generator.setDepth(Integer.parseInt(value(args, ++i)));
+            } else if (arg.equals("-accessors")) {
+                generator.setAccessorRatio(Double.parseDouble(value(args, ++i)));
+            } else if (arg.equals("-objectFields")) {
+                generator.setObjectFieldRatio(Double.parseDouble(value(args, ++i)));
+            } else if (arg.equals("-objectParams")) {
+                generator.setObjectParamRatio(Double.parseDouble(value(args, ++i)));
+            } else if (arg.equals("-objectReturns")) {
+                generator.setObjectReturnRatio(Double.parseDouble(value(args, ++i)));
+            } else if (arg.equals("-voidReturns")) {
+                generator.setVoidReturnRatio(Double.parseDouble(value(args, ++i)));
+            } else if (arg.equals("-seed")) {
+                generator.setSeed(Long.parseLong(value(args, ++i)));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return generator;
+    }
+    
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + args[index - 1]);
+        }
+        return args[index];
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticProjectGenerator <dir> [-classes N] [-methods N] [-fields N] " +
+                    "[-fanOut N] [-fanIn N] [-depth N] [-accessors R] [-objectFields R] [-objectParams R] " +
+                    "[-objectReturns R] [-voidReturns R] [-seed N]");
+            System.exit(1);
+        }
+        SyntheticProjectGenerator generator = parse(args, 1);
+        int num = generator.generate(Paths.get(args[0]));
+        System.out.println("Generated " + num + " classes into " + args[0]);
+    }
+}
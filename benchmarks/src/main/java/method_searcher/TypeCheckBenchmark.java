@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TypeCheckBenchmark {
+    
+    private CalleeChecker checker = new CalleeChecker();
+    private List<CalleeMethod> calleeMethods = new ArrayList<>();
+    private List<String> types = new ArrayList<>();
+    
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkProject project) {
+        AnalysisCache cache = new AnalysisCache(project.jproject);
+        for (MethodSeq seq : project.methodSeqs) {
+            CalleeMethod calleeMethod = new CalleeMethod(seq, cache);
+            calleeMethods.add(calleeMethod);
+            for (ProjectVariable var : calleeMethod.getInVariables()) {
+                types.add(var.toString());
+            }
+            for (ProjectVariable var : calleeMethod.getOutVariables()) {
+                types.add(var.getType());
+            }
+        }
+    }
+    
+    @Benchmark
+    public void evaluate(BenchmarkProject project, Blackhole bh) {
+        for (CalleeMethod calleeMethod : calleeMethods) {
+            bh.consume(checker.evaluate(project.jproject, calleeMethod));
+        }
+    }
+    
+    @Benchmark
+    public void classify(Blackhole bh) {
+        for (String type : types) {
+            bh.consume(TypeClassifier.classifySignature(type));
+            bh.consume(TypeClassifier.classify(type));
+        }
+    }
+}
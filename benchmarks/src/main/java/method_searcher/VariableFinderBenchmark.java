@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VariableFinderBenchmark {
+    
+    // アクセサはクラスごとに毎回走査する
+    @Benchmark
+    public void collectUncached(BenchmarkProject project, Blackhole bh) {
+        for (int i = 0; i < project.calleeMethods.size(); i++) {
+            bh.consume(new VariableFinder(project.jproject, project.calleeMethods.get(i), project.calleeCFGs.get(i)));
+        }
+    }
+    
+    // アクセサの索引を呼び出しの間で共有する
+    @Benchmark
+    public void collectWithAccessorIndex(BenchmarkProject project, Blackhole bh) {
+        AnalysisCache cache = new AnalysisCache(project.jproject);
+        for (int i = 0; i < project.calleeMethods.size(); i++) {
+            bh.consume(new VariableFinder(project.jproject, project.calleeMethods.get(i), project.calleeCFGs.get(i), cache));
+        }
+    }
+    
+    @Benchmark
+    public void calleeMethods(BenchmarkProject project, Blackhole bh) {
+        AnalysisCache cache = new AnalysisCache(project.jproject);
+        for (MethodSeq seq : project.methodSeqs) {
+            bh.consume(new CalleeMethod(seq, cache).getOutVariables());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jtool.cfg.CFG;
+import org.jtool.cfg.CFGMethodEntry;
+import org.jtool.cfg.CFGNode;
+import org.jtool.cfg.CFGStatement;
+import org.jtool.cfg.JVariableReference;
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaField;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaProject;
+
+public class AccessorIndex {
+    
+    private final Map<String, JavaMethod> setters = new HashMap<>();
+    private final Map<String, JavaMethod> getters = new HashMap<>();
+    
+    private AccessorIndex() {
+    }
+    
+    public static AccessorIndex build(JavaProject targetProject, JavaClass targetClass) {
+        AccessorSearchEvent event = new AccessorSearchEvent();
+        event.begin();
+        int candidates = 0;
+        AccessorIndex index = new AccessorIndex();
+        // 引数や戻り値の型がどのフィールドの型とも一致しないメソッドは，CFG を作る前に除く（findSetter/findGetter と同じ条件）
+        Set<String> fieldTypes = new HashSet<>();
+        for (JavaField jf : targetClass.getFields()) {
+            fieldTypes.add(jf.getType());
+        }
+        for (JavaMethod jm : targetClass.getMethods()) {
+            if (!jm.isPublic()) {
+                continue;
+            }
+            if (jm.getParameterSize() == 1 && fieldTypes.contains(jm.getParameter(0).getType())) {
+                index.addSetterCandidate(targetProject, jm);
+                candidates++;
+            } else if (jm.getParameterSize() == 0 && !jm.isVoid() && fieldTypes.contains(jm.getReturnType())) {
+                index.addGetterCandidate(targetProject, jm);
+                candidates++;
+            }
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.className = targetClass.getQualifiedName().fqn();
+            event.kind = "index";
+            event.candidates = candidates;
+            event.found = index.setters.size() + index.getters.size();
+            event.commit();
+        }
+        return index;
+    }
+    
+    // findSetter と同様に，引数を1回だけ代入しているフィールドを登録する
+    private void addSetterCandidate(JavaProject targetProject, JavaMethod jm) {
+        CFG cfg = CFGProvider.getCFG(targetProject, jm);
+        if (cfg == null) {
+            return;
+        }
+        CFGMethodEntry entry = (CFGMethodEntry)cfg.getEntryNode();
+        String paramName = entry.getFormalIn(0).getDefVariable().getQualifiedName().fqn();
+        
+        Map<String, Integer> assignments = new HashMap<>();
+        for (CFGNode node : cfg.getNodes()) {
+            if (node.isAssignment()) {
+                CFGStatement stnode = (CFGStatement)node;
+                String defName = ProjectVariable.getSingleVariableName(stnode.getDefVariables());
+                if (defName != null && paramName.equals(ProjectVariable.getSingleVariableName(stnode.getUseVariables()))) {
+                    assignments.merge(defName, 1, Integer::sum);
+                }
+            }
+        }
+        register(setters, assignments, jm.getParameter(0).getType(), jm);
+    }
+    
+    // findGetter と同様に，1回だけ return しているフィールドを登録する
+    private void addGetterCandidate(JavaProject targetProject, JavaMethod jm) {
+        CFG cfg = CFGProvider.getCFG(targetProject, jm);
+        if (cfg == null) {
+            return;
+        }
+        
+        Map<String, Integer> returns = new HashMap<>();
+        for (CFGNode node : cfg.getNodes()) {
+            if (node.isReturn()) {
+                CFGStatement stnode = (CFGStatement)node;
+                String useName = ProjectVariable.getSingleVariableName(stnode.getUseVariables());
+                if (useName != null) {
+                    returns.merge(useName, 1, Integer::sum);
+                }
+            }
+        }
+        register(getters, returns, jm.getReturnType(), jm);
+    }
+    
+    private static void register(Map<String, JavaMethod> accessors, Map<String, Integer> counts, String type, JavaMethod jm) {
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() == 1) {
+                // 複数の候補がある場合は getMethods() の順で最初のものを採用する
+                accessors.putIfAbsent(key(entry.getKey(), type), jm);
+            }
+        }
+    }
+    
+    private static String key(String name, String type) {
+        return name + "@" + type;
+    }
+    
+    public JavaMethod getSetter(JVariableReference var) {
+        return setters.get(key(var.getQualifiedName().fqn(), var.getType()));
+    }
+    
+    public JavaMethod getGetter(JVariableReference var) {
+        return getters.get(key(var.getQualifiedName().fqn(), var.getType()));
+    }
+}
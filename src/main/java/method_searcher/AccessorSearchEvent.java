@@ -0,0 +1,38 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("method_searcher.AccessorSearch")
+@Label("Accessor Search")
+@Category("Method Searcher")
+@Description("Scan of a class for setter/getter methods, either per variable or to build an AccessorIndex")
+@Threshold("1 ms")
+@StackTrace(false)
+class AccessorSearchEvent extends Event {
+    
+    @Label("Class")
+    String className;
+    
+    @Label("Kind")
+    String kind;
+    
+    @Label("Variable")
+    String variable;
+    
+    @Label("Candidates")
+    int candidates;
+    
+    @Label("Found")
+    int found;
+}
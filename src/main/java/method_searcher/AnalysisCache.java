@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jtool.cfg.CFG;
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaProject;
+import org.jtool.srcmodel.QualifiedName;
+
+public class AnalysisCache {
+    
+    private final JavaProject jproject;
+    private Metrics metrics;
+    private final Map<String, CalleeVariables> calleeVariables = new ConcurrentHashMap<>();
+    private final Map<String, AccessorIndex> accessorIndexes = new ConcurrentHashMap<>();
+    private final Map<String, ObservableMembers> observableMembers = new ConcurrentHashMap<>();
+    
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    public AnalysisCache(JavaProject jproject) {
+        this(jproject, new Metrics());
+    }
+    
+    public AnalysisCache(JavaProject jproject, Metrics metrics) {
+        this.jproject = jproject;
+        this.metrics = metrics;
+    }
+    
+    public JavaProject getJavaProject() {
+        return jproject;
+    }
+    
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
+    // 常駐モードで問い合わせごとに計測値を分ける
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    public CalleeVariables getCalleeVariables(JavaMethod targetMethod) {
+        lookups.incrementAndGet();
+        return calleeVariables.computeIfAbsent(targetMethod.getQualifiedName().fqn(), fqn -> {
+            misses.incrementAndGet();
+            return CalleeVariables.collect(targetMethod, this);
+        });
+    }
+    
+    public AccessorIndex getAccessorIndex(JavaClass targetClass) {
+        return accessorIndexes.computeIfAbsent(targetClass.getQualifiedName().fqn(), fqn -> {
+            metrics.increment(Metrics.Counter.ACCESSOR_SCANS);
+            return AccessorIndex.build(jproject, targetClass);
+        });
+    }
+    
+    // 出力変数の型は多くの呼び出し先で共通なので，型のメンバはクラスを破棄しても残しておく
+    public ObservableMembers getObservableMembers(String rawType) {
+        return observableMembers.computeIfAbsent(rawType, type -> {
+            metrics.increment(Metrics.Counter.TYPE_SCANS);
+            return ObservableMembers.collect(jproject, type);
+        });
+    }
+    
+    // クラス単位で処理する場合，処理済みクラスの解析結果を手放す．jxplatform が保持する CFG は残る
+    public void evictClass(String className) {
+        String prefix = className + QualifiedName.QualifiedNameSeparator;
+        calleeVariables.keySet().removeIf(fqn -> fqn.startsWith(prefix));
+        accessorIndexes.remove(className);
+    }
+    
+    public long getHits() {
+        return lookups.get() - misses.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    public static class CalleeVariables {
+        private final List<ProjectVariable> inVariables;
+        private final List<ProjectVariable> outVariables;
+        private final Set<String> expandedTypes;
+        private final int cfgNodeNum;
+        
+        private CalleeVariables(List<ProjectVariable> inVariables, List<ProjectVariable> outVariables,
+                Set<String> expandedTypes, int cfgNodeNum) {
+            this.inVariables = Collections.unmodifiableList(inVariables);
+            this.outVariables = Collections.unmodifiableList(outVariables);
+            this.expandedTypes = Collections.unmodifiableSet(expandedTypes);
+            this.cfgNodeNum = cfgNodeNum;
+        }
+        
+        @SuppressWarnings("try")
+        static CalleeVariables collect(JavaMethod targetMethod, AnalysisCache cache) {
+            Metrics metrics = cache != null ? cache.getMetrics() : new Metrics();
+            try (Metrics.Timer timer = metrics.start(Metrics.Phase.VARIABLES)) {
+                JavaProject targetProject = targetMethod.getJavaProject();
+                CFG cfg;
+                try (Metrics.Timer fetchTimer = metrics.start(Metrics.Phase.CFG_FETCH)) {
+                    cfg = CFGProvider.getCalleeCFG(targetProject, targetMethod);
+                }
+                metrics.increment(Metrics.Counter.CFG_FETCHES);
+                metrics.increment(Metrics.Counter.CALLEE_METHODS);
+                
+                VariableFinder variableFinder = new VariableFinder(targetProject, targetMethod, cfg, cache);
+                return new CalleeVariables(variableFinder.getInVariables(), variableFinder.getOutVariables(),
+                        variableFinder.getExpandedTypes(), cfg.getNodes().size());
+            }
+        }
+        
+        public List<ProjectVariable> getInVariables() {
+            return inVariables;
+        }
+        
+        public List<ProjectVariable> getOutVariables() {
+            return outVariables;
+        }
+        
+        public Set<String> getExpandedTypes() {
+            return expandedTypes;
+        }
+        
+        public int getCFGNodeNum() {
+            return cfgNodeNum;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import org.jtool.cfg.CCFG;
+import org.jtool.cfg.CFG;
+import org.jtool.jxplatform.builder.ModelBuilder;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaProject;
+
+/*
+ * jxplatform の CFG は ModelBuilder が初めて要求されたときに作って保持する．
+ * その保持の仕組みが複数スレッドからの同時呼び出しに耐えるという保証はないので，
+ * CFG の取得（と構築）は ModelBuilder ごとに一つのロックで直列化する．
+ * 一つの ModelBuilder は同時に構築した全プロジェクトで共有されるため，ロックもプロジェクト単位ではなく ModelBuilder 単位にする．
+ * 作り終えた CFG とソースのモデルは読むだけなので，その解析はロックの外で並列に行ってよい．
+ */
+final class CFGProvider {
+
+    private CFGProvider() {
+    }
+
+    static CFG getCFG(JavaProject jproject, JavaMethod jmethod) {
+        ModelBuilder builder = jproject.getModelBuilder();
+        synchronized (builder) {
+            return builder.getCFG(jmethod);
+        }
+    }
+
+    // 呼び出し先のメソッドの CFG はクラスの CCFG から取り出す
+    static CFG getCalleeCFG(JavaProject jproject, JavaMethod jmethod) {
+        ModelBuilder builder = jproject.getModelBuilder();
+        synchronized (builder) {
+            CCFG ccfg = builder.getCCFG(jmethod.getDeclaringClass());
+            return ccfg.getCFG(jmethod.getQualifiedName().fqn());
+        }
+    }
+}
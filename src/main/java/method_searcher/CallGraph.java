@@ -0,0 +1,224 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaProject;
+
+public class CallGraph {
+    
+    private final List<String> names = new ArrayList<>();
+    private final List<JavaMethod> methods = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private Map<String, JavaMethod> resolver;
+    
+    /*
+     * CSR 形式: id の呼び出し先は callees[calleeOffsets[id] .. calleeOffsets[id + 1]) に並ぶ．
+     * スナップショットから読み込んだ場合はマップしたファイルをそのまま参照し，ヒープには写さない．
+     */
+    private IntBuffer calleeOffsets;
+    private IntBuffer callees;
+    private IntBuffer callerOffsets;
+    private IntBuffer callers;
+    
+    // getClasses() に含まれないメソッドを見つけたときに走査していたメソッドの id（含まれるメソッドは -1）
+    private IntBuffer parents;
+    
+    private CallGraph() {
+    }
+    
+    CallGraph(List<String> names, IntBuffer calleeOffsets, IntBuffer callees, IntBuffer callerOffsets,
+            IntBuffer callers, IntBuffer parents, Map<String, JavaMethod> resolver) {
+        for (String name : names) {
+            this.ids.put(name, this.names.size());
+            this.names.add(name);
+            this.methods.add(null);
+        }
+        this.calleeOffsets = calleeOffsets;
+        this.callees = callees;
+        this.callerOffsets = callerOffsets;
+        this.callers = callers;
+        this.parents = parents;
+        this.resolver = resolver;
+    }
+    
+    public static CallGraph build(JavaProject jproject) {
+        CallGraph graph = new CallGraph();
+        IntArray parents = new IntArray();
+        for (JavaClass jc : jproject.getClasses()) {
+            for (JavaMethod jm : jc.getMethods()) {
+                graph.register(jm, -1, parents);
+            }
+        }
+        
+        IntArray calleeOffsets = new IntArray();
+        IntArray callees = new IntArray();
+        IntArray callerOffsets = new IntArray();
+        IntArray callers = new IntArray();
+        
+        // getClasses() に含まれないクラスのメソッドも辿れるよう，登録しながら走査する
+        for (int id = 0; id < graph.size(); id++) {
+            JavaMethod jm = graph.methods.get(id);
+            calleeOffsets.add(callees.size());
+            for (JavaMethod callee : jm.getCalledMethodsInProject()) {
+                callees.add(graph.register(callee, id, parents));
+            }
+            callerOffsets.add(callers.size());
+            for (JavaMethod caller : jm.getCallingMethodsInProject()) {
+                callers.add(graph.register(caller, id, parents));
+            }
+        }
+        calleeOffsets.add(callees.size());
+        callerOffsets.add(callers.size());
+        
+        graph.calleeOffsets = IntBuffer.wrap(calleeOffsets.toArray());
+        graph.callees = IntBuffer.wrap(callees.toArray());
+        graph.callerOffsets = IntBuffer.wrap(callerOffsets.toArray());
+        graph.callers = IntBuffer.wrap(callers.toArray());
+        graph.parents = IntBuffer.wrap(parents.toArray());
+        return graph;
+    }
+    
+    private int register(JavaMethod jm, int parent, IntArray parents) {
+        String name = jm.getQualifiedName().fqn();
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            methods.add(jm);
+            ids.put(name, id);
+            parents.add(parent);
+        }
+        return id;
+    }
+    
+    public int size() {
+        return names.size();
+    }
+    
+    public int getId(JavaMethod jm) {
+        Integer id = ids.get(jm.getQualifiedName().fqn());
+        return id != null ? id : -1;
+    }
+    
+    public String getName(int id) {
+        return names.get(id);
+    }
+    
+    /*
+     * スナップショットから読み込んだ場合は，必要になったメソッドだけモデルから引き当てる．
+     * getClasses() に含まれないメソッドは，構築時と同じく見つけたときのメソッドの呼び出し関係から探す．
+     * 引き当てはこのグラフと jxplatform のモデルを書き換えるので，一つのスレッドから呼ぶこと．
+     */
+    public JavaMethod getMethod(int id) {
+        JavaMethod jm = methods.get(id);
+        if (jm == null && resolver != null) {
+            jm = resolver.get(names.get(id));
+            if (jm == null && parents.get(id) >= 0) {
+                jm = findNeighbor(getMethod(parents.get(id)), names.get(id));
+            }
+            methods.set(id, jm);
+        }
+        return jm;
+    }
+    
+    private static JavaMethod findNeighbor(JavaMethod parent, String name) {
+        if (parent == null) {
+            return null;
+        }
+        for (JavaMethod jm : parent.getCalledMethodsInProject()) {
+            if (jm.getQualifiedName().fqn().equals(name)) {
+                return jm;
+            }
+        }
+        for (JavaMethod jm : parent.getCallingMethodsInProject()) {
+            if (jm.getQualifiedName().fqn().equals(name)) {
+                return jm;
+            }
+        }
+        return null;
+    }
+    
+    public int getCalleeBegin(int id) {
+        return calleeOffsets.get(id);
+    }
+    
+    public int getCalleeEnd(int id) {
+        return calleeOffsets.get(id + 1);
+    }
+    
+    public int getCallee(int index) {
+        return callees.get(index);
+    }
+    
+    public int getCallerBegin(int id) {
+        return callerOffsets.get(id);
+    }
+    
+    public int getCallerEnd(int id) {
+        return callerOffsets.get(id + 1);
+    }
+    
+    public int getCaller(int index) {
+        return callers.get(index);
+    }
+    
+    public int getEdgeNum() {
+        return callees.limit();
+    }
+    
+    int getParent(int id) {
+        return parents.get(id);
+    }
+    
+    IntBuffer getCalleeOffsets() {
+        return calleeOffsets.duplicate();
+    }
+    
+    IntBuffer getCallees() {
+        return callees.duplicate();
+    }
+    
+    IntBuffer getCallerOffsets() {
+        return callerOffsets.duplicate();
+    }
+    
+    IntBuffer getCallers() {
+        return callers.duplicate();
+    }
+    
+    IntBuffer getParents() {
+        return parents.duplicate();
+    }
+    
+    private static class IntArray {
+        private int[] values = new int[64];
+        private int size = 0;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
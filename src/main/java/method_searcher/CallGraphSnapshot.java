@@ -0,0 +1,214 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaProject;
+
+/*
+ * 呼び出しグラフ（辺の並び）をソースの内容ごとに保存し，次回の実行で呼び出し関係の抽出を省く．
+ * 省けるのは CallGraph.build の部分だけで，ソースの解析とモデルの構築は毎回行う．
+ * メソッドの名前はモデル（getClasses()）から引き当て，検査する系列の CFG もそのモデルから作るため．
+ * 起動時間の大半はモデルの構築なので，効果は _metrics.json の Call graph の段階の時間に限られる．
+ */
+public class CallGraphSnapshot {
+
+    private static final int MAGIC = 0x4d534347;
+    private static final int VERSION = 2;
+    private static final String SUFFIX = ".callgraph";
+
+    private final Path dir;
+
+    public CallGraphSnapshot(Path dir) {
+        this.dir = dir;
+    }
+
+    public CallGraph loadOrBuild(JavaProject jproject) {
+        String hash;
+        try {
+            hash = hashSourceTree(Paths.get(jproject.getPath()));
+        } catch (IOException e) {
+            System.err.println("**** Cannot hash source tree: " + e);
+            return CallGraph.build(jproject);
+        }
+
+        String prefix = jproject.getName().replaceAll("[^A-Za-z0-9._-]", "_") + "-";
+        Path file = dir.resolve(prefix + hash.substring(0, 16) + SUFFIX);
+        if (Files.exists(file)) {
+            try {
+                CallGraph graph = load(file, hash, jproject);
+                if (graph != null) {
+                    return graph;
+                }
+            } catch (IOException e) {
+                System.err.println("**** Cannot read call graph snapshot: " + e);
+            }
+        }
+
+        CallGraph graph = CallGraph.build(jproject);
+        try {
+            write(file, hash, graph);
+            deleteStale(file, prefix);
+        } catch (IOException e) {
+            System.err.println("**** Cannot write call graph snapshot: " + e);
+        }
+        return graph;
+    }
+
+    public static void write(Path file, String hash, CallGraph graph) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (OutputStream os = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, hash);
+            out.writeInt(graph.size());
+            for (int id = 0; id < graph.size(); id++) {
+                writeString(out, graph.getName(id));
+            }
+            writeInts(out, graph.getCalleeOffsets());
+            writeInts(out, graph.getCallees());
+            writeInts(out, graph.getCallerOffsets());
+            writeInts(out, graph.getCallers());
+            writeInts(out, graph.getParents());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ソースが変わる前の古いスナップショットは使われないので消す
+    private static void deleteStale(Path file, String prefix) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(file.toAbsolutePath().getParent(), prefix + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                if (!path.getFileName().equals(file.getFileName())) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    public static CallGraph load(Path file, String hash, JavaProject jproject) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // マップした領域はチャネルを閉じても有効なので，配列はコピーせずにこの領域を参照する
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !hash.equals(readString(buffer))) {
+                return null;
+            }
+
+            // 名前は id の引き当てに使うので，これだけはヒープに読み込む
+            int size = buffer.getInt();
+            List<String> names = new ArrayList<>(size);
+            for (int id = 0; id < size; id++) {
+                names.add(readString(buffer));
+            }
+            IntBuffer calleeOffsets = readInts(buffer);
+            IntBuffer callees = readInts(buffer);
+            IntBuffer callerOffsets = readInts(buffer);
+            IntBuffer callers = readInts(buffer);
+            IntBuffer parents = readInts(buffer);
+
+            Map<String, JavaMethod> resolver = new HashMap<>();
+            for (JavaClass jc : jproject.getClasses()) {
+                for (JavaMethod jm : jc.getMethods()) {
+                    resolver.put(jm.getQualifiedName().fqn(), jm);
+                }
+            }
+            // getClasses() のメソッドが引き当てられなければモデルと食い違っているので使わない
+            for (int id = 0; id < size; id++) {
+                if (parents.get(id) < 0 && !resolver.containsKey(names.get(id))) {
+                    return null;
+                }
+            }
+            return new CallGraph(names, calleeOffsets, callees, callerOffsets, callers, parents, resolver);
+        }
+    }
+
+    public static String hashSourceTree(Path root) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))
+                          .sorted()
+                          .collect(Collectors.toList());
+        }
+        for (Path path : files) {
+            digest.update(root.relativize(path).toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte)0);
+            digest.update(Files.readAllBytes(path));
+        }
+
+        StringBuilder buf = new StringBuilder();
+        for (byte b : digest.digest()) {
+            buf.append(String.format("%02x", b));
+        }
+        return buf.toString();
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // int の並びは 4 バイト境界から始めて，読み込み時に IntBuffer としてそのまま参照できるようにする
+    private static void writeInts(DataOutputStream out, IntBuffer values) throws IOException {
+        while (out.size() % Integer.BYTES != 0) {
+            out.writeByte(0);
+        }
+        out.writeInt(values.remaining());
+        while (values.hasRemaining()) {
+            out.writeInt(values.get());
+        }
+    }
+
+    private static IntBuffer readInts(MappedByteBuffer buffer) {
+        while (buffer.position() % Integer.BYTES != 0) {
+            buffer.get();
+        }
+        int length = buffer.getInt();
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length * Integer.BYTES);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return slice.asIntBuffer();
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaProject;
+
+import method_searcher.FailedMethods.Reason;
+import method_searcher.FailedMethods.Stage;
+
+public class CalleeChecker {
+    
+    private boolean objectInputRequired = true;
+    private boolean primitiveOutputRequired = true;
+    
+    public void setObjectInputRequired(boolean objectInputRequired) {
+        this.objectInputRequired = objectInputRequired;
+    }
+    
+    public void setPrimitiveOutputRequired(boolean primitiveOutputRequired) {
+        this.primitiveOutputRequired = primitiveOutputRequired;
+    }
+    
+    public boolean check(JavaProject jproject, CalleeMethod testTarget, FailedMethods failedMethods) {
+        FailedMethods.Failure failure = evaluate(jproject, testTarget);
+        if (failure != null) {
+            failedMethods.add(failure);
+            return false;
+        }
+        return true;
+    }
+    
+    public FailedMethods.Failure evaluate(JavaProject jproject, CalleeMethod testTarget) {
+        String targetClassName = testTarget.getTargetMethod().getDeclaringClass().getQualifiedName().fqn();
+        JavaClass targetClass = jproject.getClass(targetClassName);
+        if (targetClass == null) {
+            System.err.println("**** Not found target class: " + targetClassName);
+            return new FailedMethods.Failure(Reason.NOT_FOUND_CLASS, targetClassName, Stage.LOOKUP);
+        }
+        
+        String targetMethodSig = testTarget.getTargetMethod().getSignature();
+        JavaMethod targetMethod = targetClass.getMethod(targetMethodSig);
+        if (targetMethod == null) {
+            // System.err.println("**** Not found target method: " + targetMethodSig + " in " + targetClassName);
+            return new FailedMethods.Failure(Reason.NOT_FOUND_METHOD, targetMethodSig, Stage.LOOKUP);
+        }
+        
+        // ここまでは CFG を使わない．シグネチャだけで決まるものは変数を集める前に落とす
+        FailedMethods.Failure failure = evaluateSignature(targetMethod, targetClassName, targetMethodSig);
+        if (failure != null) {
+            return failure;
+        }
+        
+        if (testTarget.getInVariables().isEmpty()) {
+            // System.err.println("**** Not found input variable: " + targetMethodSig + " in " + targetClassName);
+            return new FailedMethods.Failure(Reason.NOT_FOUND_INPUT_VARIABLE, targetClassName, Stage.DATAFLOW);
+        }
+        
+        if (testTarget.getOutVariables().isEmpty()) {
+            // System.err.println("**** Not found output variable: " + targetMethodSig + " in " + targetClassName);
+            return new FailedMethods.Failure(Reason.NOT_FOUND_OUTPUT_VARIABLE, targetClassName, Stage.DATAFLOW);
+        }
+
+        if (objectInputRequired && !isObjectInput(testTarget)) {
+            // System.err.println("**** Input variable is not Object: " + targetMethodSig + " in " + targetClassName);
+            return new FailedMethods.Failure(Reason.NOT_OBJECT_INPUT, targetMethodSig, Stage.DATAFLOW);
+        }
+
+        if (primitiveOutputRequired && !isPrimitiveOutput(testTarget)) {
+            // System.err.println("**** Output variable is not Primitive: " + targetMethodSig + " in " + targetClassName);
+            return new FailedMethods.Failure(Reason.NOT_PRIMITIVE_OUTPUT, targetMethodSig, Stage.DATAFLOW);
+        }
+
+        return null;
+    }
+
+    /*
+     * 変数を集めなくても結果が分かるものだけを判定する．
+     * 引数のない static メソッドには入力変数がなく，戻り値のない static メソッドには出力変数がない．
+     * 戻り値のないメソッドは，本体でフィールドに書き込まなければ出力変数がない（mayWriteFields）．
+     * 引数の変数名は呼び出し先のシグネチャを含み，フィールドの変数名は含まないので，
+     * シグネチャの型がすべて基本型なら Object 型の入力はない．
+     * 合否は変数を集めた場合と変わらないが，複数の理由に当てはまる組は記録される理由が変わることがある．
+     */
+    private FailedMethods.Failure evaluateSignature(JavaMethod targetMethod, String targetClassName, String targetMethodSig) {
+        if (targetMethod.isStatic() && targetMethod.getParameterSize() == 0) {
+            return new FailedMethods.Failure(Reason.NOT_FOUND_INPUT_VARIABLE, targetClassName, Stage.SIGNATURE);
+        }
+        
+        if (targetMethod.isVoid() && (targetMethod.isStatic() || !mayWriteFields(targetMethod))) {
+            return new FailedMethods.Failure(Reason.NOT_FOUND_OUTPUT_VARIABLE, targetClassName, Stage.SIGNATURE);
+        }
+        
+        if (objectInputRequired) {
+            boolean objectType = false;
+            for (TypeClassifier.TypeInfo info : TypeClassifier.classifySignature(targetMethod.getQualifiedName().fqn())) {
+                if (!info.isPartOfPrimitive()) {
+                    objectType = true;
+                    break;
+                }
+            }
+            if (!objectType) {
+                return new FailedMethods.Failure(Reason.NOT_OBJECT_INPUT, targetMethodSig, Stage.SIGNATURE);
+            }
+        }
+        return null;
+    }
+    
+    /*
+     * 本体の AST だけを見て，フィールドに書き込む可能性があるかを調べる．
+     * ローカル変数と引数以外への代入・増減があれば書き込むものとみなす．
+     * 呼び出し先での書き込みは分からないので，メソッド呼び出しやインスタンス生成があれば書き込むものとみなす．
+     * 本体の AST がない場合も，CFG を作って調べるよう書き込むものとみなす．
+     */
+    static boolean mayWriteFields(JavaMethod jmethod) {
+        ASTNode node = jmethod.getASTNode();
+        if (!(node instanceof MethodDeclaration)) {
+            return true;
+        }
+        Block body = ((MethodDeclaration)node).getBody();
+        if (body == null) {
+            return true;
+        }
+        FieldWriteFinder finder = new FieldWriteFinder();
+        body.accept(finder);
+        return finder.found;
+    }
+    
+    private static class FieldWriteFinder extends ASTVisitor {
+        boolean found = false;
+        
+        @Override
+        public boolean visit(Assignment node) {
+            check(node.getLeftHandSide());
+            return !found;
+        }
+        
+        @Override
+        public boolean visit(PrefixExpression node) {
+            if (node.getOperator() == PrefixExpression.Operator.INCREMENT ||
+                    node.getOperator() == PrefixExpression.Operator.DECREMENT) {
+                check(node.getOperand());
+            }
+            return !found;
+        }
+        
+        @Override
+        public boolean visit(PostfixExpression node) {
+            check(node.getOperand());
+            return !found;
+        }
+        
+        @Override
+        public boolean visit(MethodInvocation node) {
+            found = true;
+            return false;
+        }
+        
+        @Override
+        public boolean visit(SuperMethodInvocation node) {
+            found = true;
+            return false;
+        }
+        
+        @Override
+        public boolean visit(ClassInstanceCreation node) {
+            found = true;
+            return false;
+        }
+        
+        @Override
+        public boolean visit(ConstructorInvocation node) {
+            found = true;
+            return false;
+        }
+        
+        @Override
+        public boolean visit(SuperConstructorInvocation node) {
+            found = true;
+            return false;
+        }
+        
+        // 束縛が分かり，フィールドでない単純名への書き込みだけを除く
+        private void check(Expression target) {
+            if (target instanceof SimpleName) {
+                IBinding binding = ((SimpleName)target).resolveBinding();
+                if (binding instanceof IVariableBinding && !((IVariableBinding)binding).isField()) {
+                    return;
+                }
+            }
+            found = true;
+        }
+    }
+    
+    private boolean isObjectInput(CalleeMethod testTarget) {
+        for (ProjectVariable var : testTarget.getInVariables()) {
+            if (var.hasObjectSignatureType()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean isPrimitiveOutput(CalleeMethod testTarget) {
+        for (ProjectVariable var : testTarget.getOutVariables()) {
+            if (var.hasPrimitiveOutputType()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -5,33 +5,27 @@
 
  package method_searcher;
 
- import org.jtool.jxplatform.builder.ModelBuilder;
- import org.jtool.srcmodel.JavaProject;
  import org.jtool.srcmodel.JavaMethod;
- import org.jtool.cfg.CCFG;
- import org.jtool.cfg.CFG;
  
  import java.util.List;
+ import java.util.Set;
  
  public class CalleeMethod {
      private JavaMethod callerMethod;
      private JavaMethod targetMethod;
      
-     private List<ProjectVariable> inVariables;
-     private List<ProjectVariable> outVariables;
+     private AnalysisCache cache;
+     private AnalysisCache.CalleeVariables variables;
      
      public CalleeMethod(MethodSeq methodSeq) {
-         callerMethod = methodSeq.caller();
-         targetMethod = methodSeq.callee();
-         
-         JavaProject targetProject = targetMethod.getJavaProject();
-         ModelBuilder builder = targetProject.getModelBuilder();
-         CCFG ccfg = builder.getCCFG(targetMethod.getDeclaringClass());
-         CFG cfg = ccfg.getCFG(targetMethod.getQualifiedName().fqn());
-         
-         VariableFinder variableFinder = new VariableFinder(targetProject, targetMethod, cfg);
-         this.inVariables = variableFinder.getInVariables();
-         this.outVariables = variableFinder.getOutVariables();
+         this(methodSeq, null);
+     }
+     
+     // 入出力変数は最初に参照されたときに集める
+     public CalleeMethod(MethodSeq methodSeq, AnalysisCache cache) {
+         this.callerMethod = methodSeq.caller();
+         this.targetMethod = methodSeq.callee();
+         this.cache = cache;
      }
      
      public JavaMethod getCallerMethod() {
@@ -43,11 +37,46 @@
      }
      
      public List<ProjectVariable> getInVariables() {
-         return inVariables;
+         return getVariables().getInVariables();
      }
      
      public List<ProjectVariable> getOutVariables() {
-         return outVariables;
+         return getVariables().getOutVariables();
+     }
+     
+     // 出力変数の展開で調べた型
+     public Set<String> getExpandedTypes() {
+         return getVariables().getExpandedTypes();
+     }
+     
+     public boolean isAnalyzed() {
+         return variables != null;
+     }
+     
+     private AnalysisCache.CalleeVariables getVariables() {
+         if (variables != null) {
+             return variables;
+         }
+         
+         CalleeMethodEvent event = new CalleeMethodEvent();
+         event.begin();
+         long misses = cache != null ? cache.getMisses() : 0;
+         if (cache != null) {
+             variables = cache.getCalleeVariables(targetMethod);
+         } else {
+             variables = AnalysisCache.CalleeVariables.collect(targetMethod, null);
+         }
+         
+         event.end();
+         if (event.shouldCommit()) {
+             event.callee = targetMethod.getQualifiedName().fqn();
+             event.cfgNodes = variables.getCFGNodeNum();
+             event.inVariables = variables.getInVariables().size();
+             event.outVariables = variables.getOutVariables().size();
+             // 並列実行時は他スレッドの取りこぼしと区別できないので目安として扱う
+             event.cached = cache != null && cache.getMisses() == misses;
+             event.commit();
+         }
+         return variables;
      }
  }
- 
\ No newline at end of file
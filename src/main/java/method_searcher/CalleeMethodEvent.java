@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// 既定では 1 ms 以上かかったものだけを記録する（threshold を 0 ms にすれば全件）
+@Name("method_searcher.CalleeMethod")
+@Label("Callee Method Analysis")
+@Category("Method Searcher")
+@Description("First access to the in/out variables of a CalleeMethod, including extraction on a cache miss")
+@Threshold("1 ms")
+@StackTrace(false)
+class CalleeMethodEvent extends Event {
+    
+    @Label("Callee")
+    String callee;
+    
+    @Label("CFG Nodes")
+    int cfgNodes;
+    
+    @Label("In Variables")
+    int inVariables;
+    
+    @Label("Out Variables")
+    int outVariables;
+    
+    @Label("Cached")
+    boolean cached;
+}
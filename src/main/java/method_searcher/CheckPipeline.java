@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * 系列の列挙・検査・書き出しを並行に進めるパイプライン．
+ * 呼び出したスレッドが系列を列挙して上限付きのキューに入れ，検査用のワーカーがそれを取り出して検査し，
+ * 書き出し用の一つのスレッドが列挙順に並べ直して記録する．
+ * 処理中の系列数（キュー・検査中・並べ替え待ちの合計）を上限で抑えるので，
+ * 検査が追いつかないときは列挙の方が待ち，メモリの使用量は一定に保たれる．
+ * ワーカーは固定数のプラットフォームスレッドで動かす．検査は CFGProvider のロックと AnalysisCache の computeIfAbsent の中で
+ * 待つことがあり，仮想スレッドではそこでキャリアスレッドが占有されて固定数のスレッドと変わらないため．
+ */
+class CheckPipeline {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final PairEvaluator evaluator;
+    private final Metrics metrics;
+    private final int workerNum;
+
+    private final BlockingQueue<Item> checkQueue;
+    private final BlockingQueue<Item> writeQueue = new LinkedBlockingQueue<>();
+    private final Semaphore inFlight;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile int pendingNum = 0;
+
+    CheckPipeline(PairEvaluator evaluator, Metrics metrics, int workerNum, int queueSize) {
+        this.evaluator = evaluator;
+        this.metrics = metrics;
+        this.workerNum = workerNum;
+        this.checkQueue = new ArrayBlockingQueue<>(queueSize);
+        this.inFlight = new Semaphore(queueSize * 2);
+    }
+
+    int getCheckQueueSize() {
+        return checkQueue.size();
+    }
+
+    int getWriteQueueSize() {
+        return writeQueue.size();
+    }
+
+    int getPendingNum() {
+        return pendingNum;
+    }
+
+    // 列挙した系列の数を返す
+    long run(Iterator<MethodSeq> seqs, ResultWriter writer, FailedMethods failedMethods) throws IOException {
+        ExecutorService workers = createWorkerExecutor();
+        ExecutorService writerThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long order = 0;
+        try {
+            for (int i = 0; i < workerNum; i++) {
+                workers.execute(this::check);
+            }
+            writerThread.execute(() -> write(writer, failedMethods));
+
+            while (failure.get() == null && seqs.hasNext()) {
+                Item item = new Item(order, seqs.next());
+                if (!inFlight.tryAcquire()) {
+                    // 検査か書き出しが追いついていない
+                    metrics.increment(Metrics.Counter.PIPELINE_PRODUCER_WAITS);
+                    acquire();
+                }
+                put(checkQueue, item);
+                order++;
+            }
+            for (int i = 0; i < workerNum; i++) {
+                put(checkQueue, Item.END);
+            }
+
+            workers.shutdown();
+            writerThread.shutdown();
+            writerThread.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            workers.shutdownNow();
+            writerThread.shutdownNow();
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof IOException) {
+            throw (IOException)cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException)cause;
+        } else if (cause instanceof Error) {
+            throw (Error)cause;
+        } else if (cause != null) {
+            throw new IOException("Pipeline interrupted", cause);
+        }
+        return order;
+    }
+
+    private void check() {
+        try {
+            while (true) {
+                Item item = checkQueue.poll();
+                if (item == null) {
+                    metrics.increment(Metrics.Counter.PIPELINE_WORKER_WAITS);
+                    while (item == null && failure.get() == null) {
+                        item = checkQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                    if (item == null) {
+                        return;
+                    }
+                }
+                if (item == Item.END) {
+                    put(writeQueue, Item.END);
+                    return;
+                }
+                item.outcome = evaluator.evaluate(item.seq);
+                put(writeQueue, item);
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    // ワーカーは各自の結果の後に終端を送るので，終端がワーカー数だけ届けばすべての結果が届いている
+    private void write(ResultWriter writer, FailedMethods failedMethods) {
+        Map<Long, Item> pending = new HashMap<>();
+        long next = 0;
+        int endNum = 0;
+        try {
+            while (endNum < workerNum && failure.get() == null) {
+                Item item = writeQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    continue;
+                }
+                if (item == Item.END) {
+                    endNum++;
+                    continue;
+                }
+                pending.put(item.order, item);
+                while ((item = pending.remove(next)) != null) {
+                    evaluator.record(item.outcome, writer, failedMethods);
+                    next++;
+                    inFlight.release();
+                }
+                pendingNum = pending.size();
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    // どこかで失敗したら待つのをやめる
+    private void acquire() throws InterruptedException {
+        boolean acquired = false;
+        while (!acquired && failure.get() == null) {
+            acquired = inFlight.tryAcquire(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void put(BlockingQueue<Item> queue, Item item) throws InterruptedException {
+        boolean added = false;
+        while (!added && failure.get() == null) {
+            added = queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private ExecutorService createWorkerExecutor() {
+        return Executors.newFixedThreadPool(workerNum, runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static class Item {
+        static final Item END = new Item(-1, null);
+
+        final long order;
+        final MethodSeq seq;
+        PairOutcome outcome;
+
+        Item(long order, MethodSeq seq) {
+            this.order = order;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+class CheckTask extends RecursiveTask<List<PairOutcome>> {
+    
+    private static final long serialVersionUID = 1L;
+    private static final int THRESHOLD = 16;
+    
+    private final PairEvaluator evaluator;
+    private final List<MethodSeq> seqList;
+    private final int from;
+    private final int to;
+    
+    CheckTask(PairEvaluator evaluator, List<MethodSeq> seqList) {
+        this(evaluator, seqList, 0, seqList.size());
+    }
+    
+    private CheckTask(PairEvaluator evaluator, List<MethodSeq> seqList, int from, int to) {
+        this.evaluator = evaluator;
+        this.seqList = seqList;
+        this.from = from;
+        this.to = to;
+    }
+    
+    @Override
+    protected List<PairOutcome> compute() {
+        if (to - from <= THRESHOLD) {
+            List<PairOutcome> outcomes = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                outcomes.add(evaluator.evaluate(seqList.get(i)));
+            }
+            return outcomes;
+        }
+        
+        int mid = (from + to) >>> 1;
+        CheckTask left = new CheckTask(evaluator, seqList, from, mid);
+        CheckTask right = new CheckTask(evaluator, seqList, mid, to);
+        left.fork();
+        List<PairOutcome> rightOutcomes = right.compute();
+        List<PairOutcome> outcomes = left.join();
+        // 左側の結果に右側を連結することで，逐次実行と同じ順序を保つ
+        outcomes.addAll(rightOutcomes);
+        return outcomes;
+    }
+}
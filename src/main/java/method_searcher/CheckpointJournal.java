@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jtool.srcmodel.JavaProject;
+
+/*
+ * 検査の途中経過を追記していくジャーナル．
+ * 各系列の結果を列挙順の通し番号とともに記録し，一定間隔でディスクに同期する．
+ * 入力（ソースと検索条件）が同じまま再実行すると，記録済みの系列は検査せずに記録した結果を返すので，
+ * 中断前と同じ順序で結果が書き出される．
+ */
+public class CheckpointJournal implements Closeable {
+
+    private static final String HEADER = "# method_searcher journal v1";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long FORCE_INTERVAL_MILLIS = 5000;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<Long, String[]> completed;
+    private final StringBuilder buffer = new StringBuilder();
+    private long lastForce = System.currentTimeMillis();
+    private long resumed = 0;
+
+    private CheckpointJournal(Path file, FileChannel channel, Map<Long, String[]> completed) {
+        this.file = file;
+        this.channel = channel;
+        this.completed = completed;
+    }
+
+    public static CheckpointJournal open(Path file, JavaProject jproject, String inputKey) throws IOException {
+        String hash = sha256(CallGraphSnapshot.hashSourceTree(Paths.get(jproject.getPath())) + "\t" + inputKey);
+        return open(file, hash);
+    }
+
+    static CheckpointJournal open(Path file, String hash) throws IOException {
+        String header = HEADER + "\t" + hash;
+        Map<Long, String[]> completed = new HashMap<>();
+        long validSize = 0;
+        if (Files.exists(file)) {
+            long fileSize = Files.size(file);
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line = reader.readLine();
+                if (header.equals(line) && length(line) <= fileSize) {
+                    validSize = length(line);
+                    while ((line = reader.readLine()) != null) {
+                        String[] cols = line.split("\t", -1);
+                        // 中断で改行まで書かれなかった行や壊れた行があれば，そこから後は捨てる
+                        if (!isValid(cols) || validSize + length(line) > fileSize) {
+                            break;
+                        }
+                        completed.put(Long.parseLong(cols[0]), cols);
+                        validSize += length(line);
+                    }
+                }
+            }
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        CheckpointJournal journal = new CheckpointJournal(file, channel, completed);
+        channel.truncate(validSize);
+        channel.position(validSize);
+        if (validSize == 0) {
+            // 初めての実行か入力が変わったので，最初から記録し直す
+            journal.buffer.append(header).append('\n');
+            journal.flush(true);
+        }
+        return journal;
+    }
+
+    // 通し番号 \t VALID \t 呼び出し元 \t 呼び出し先，または 通し番号 \t 理由 \t 段階 \t 名前 の形か
+    private static boolean isValid(String[] cols) {
+        if (cols.length != 4) {
+            return false;
+        }
+        try {
+            if (Long.parseLong(cols[0]) < 0) {
+                return false;
+            }
+            if (!cols[1].equals(ShardWorker.VALID)) {
+                FailedMethods.Reason.valueOf(cols[1]);
+                FailedMethods.Stage.valueOf(cols[2]);
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    private static long length(String line) {
+        return line.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+
+    // 記録済みの系列なら結果を返す．一度返した結果はメモリから外す
+    public PairOutcome lookup(MethodSeq seq) {
+        String[] cols;
+        synchronized (this) {
+            cols = completed.remove(seq.getIndex());
+            if (cols == null) {
+                return null;
+            }
+            resumed++;
+        }
+        PairOutcome outcome = ShardWorker.parse(cols);
+        return new PairOutcome(seq.caller().getQualifiedName().fqn(), seq.getName(), outcome.getFailure());
+    }
+
+    public synchronized void record(MethodSeq seq, PairOutcome outcome) throws IOException {
+        buffer.append(ShardWorker.format(seq.getIndex(), outcome));
+        long now = System.currentTimeMillis();
+        if (now - lastForce >= FORCE_INTERVAL_MILLIS) {
+            flush(true);
+        } else if (buffer.length() >= BUFFER_SIZE) {
+            flush(false);
+        }
+    }
+
+    public synchronized long getResumedNum() {
+        return resumed;
+    }
+
+    // すべての系列を検査し終えたら，次の実行で読み込まないようジャーナルを消す
+    public void complete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            flush(true);
+            channel.close();
+        }
+    }
+
+    private void flush(boolean force) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        buffer.setLength(0);
+        if (force) {
+            channel.force(false);
+            lastForce = System.currentTimeMillis();
+        }
+    }
+
+    private static String sha256(String str) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder buf = new StringBuilder();
+            for (byte b : digest.digest(str.getBytes(StandardCharsets.UTF_8))) {
+                buf.append(String.format("%02x", b));
+            }
+            return buf.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
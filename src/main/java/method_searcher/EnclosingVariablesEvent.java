@@ -0,0 +1,35 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("method_searcher.EnclosingVariables")
+@Label("Enclosing Variable Expansion")
+@Category("Method Searcher")
+@Description("Expansion of an object-typed output variable into its observable primitive members")
+@Threshold("1 ms")
+@StackTrace(false)
+class EnclosingVariablesEvent extends Event {
+    
+    @Label("Variable")
+    String variable;
+    
+    @Label("Type")
+    String type;
+    
+    @Label("Members Scanned")
+    int members;
+    
+    @Label("Expanded")
+    int expanded;
+}
@@ -5,12 +5,24 @@ import java.util.List;
 
 
 public class FailedMethods {
+    
+    public enum Reason {
+        NOT_FOUND_CLASS, NOT_FOUND_METHOD, NOT_FOUND_INPUT_VARIABLE, NOT_FOUND_OUTPUT_VARIABLE,
+        NOT_OBJECT_INPUT, NOT_PRIMITIVE_OUTPUT,
+    }
+    
+    // 不合格と判定した段階（クラス・メソッドの引き当て，シグネチャのみでの判定，データフロー解析後の判定）
+    public enum Stage {
+        LOOKUP, SIGNATURE, DATAFLOW,
+    }
+    
     private List<String> notFoundClasses;
     private List<String> notFoundMethods;
     private List<String> notFoundInputVariables;
     private List<String> notFoundOutputVariables;
     private List<String> isNotObjectInput;
     private List<String> isNotPrimitiveOutput;
+    private long[] stageNums = new long[Stage.values().length];
 
     public FailedMethods() {
         this.notFoundClasses = new ArrayList<>();
@@ -21,51 +33,127 @@ public class FailedMethods {
         this.isNotPrimitiveOutput = new ArrayList<>();
     }
 
-    public List<String> getNotFoundClasses() {
-        return notFoundClasses;
+    public synchronized List<String> getNotFoundClasses() {
+        return new ArrayList<>(notFoundClasses);
     }
 
-    public void addNotFoundClasse(String notFoundClasses) {
+    public synchronized void addNotFoundClasse(String notFoundClasses) {
         this.notFoundClasses.add(notFoundClasses);
     }
 
-    public List<String> getNotFoundMethods() {
-        return notFoundMethods;
+    public synchronized List<String> getNotFoundMethods() {
+        return new ArrayList<>(notFoundMethods);
     }
 
-    public void addNotFoundMethod(String notFoundMethods) {
+    public synchronized void addNotFoundMethod(String notFoundMethods) {
         this.notFoundMethods.add(notFoundMethods);
     }
 
-    public List<String> getNotFoundInputVariables() {
-        return notFoundInputVariables;
+    public synchronized List<String> getNotFoundInputVariables() {
+        return new ArrayList<>(notFoundInputVariables);
     }
 
-    public void addNotFoundInputVariable(String notFoundInputVariables) {
+    public synchronized void addNotFoundInputVariable(String notFoundInputVariables) {
         this.notFoundInputVariables.add(notFoundInputVariables);
     }
 
-    public List<String> getNotFoundOutputVariables() {
-        return notFoundOutputVariables;
+    public synchronized List<String> getNotFoundOutputVariables() {
+        return new ArrayList<>(notFoundOutputVariables);
     }
 
-    public void addNotFoundOutputVariable(String notFoundOutputVariables) {
+    public synchronized void addNotFoundOutputVariable(String notFoundOutputVariables) {
         this.notFoundOutputVariables.add(notFoundOutputVariables);
     }
 
-    public List<String> getIsNotObjectInput() {
-        return isNotObjectInput;
+    public synchronized List<String> getIsNotObjectInput() {
+        return new ArrayList<>(isNotObjectInput);
     }
 
-    public void addIsNotObjectInput(String isNotObjectInput) {
+    public synchronized void addIsNotObjectInput(String isNotObjectInput) {
         this.isNotObjectInput.add(isNotObjectInput);
     }
 
-    public List<String> getIsNotPrimitiveOutput() {
-        return isNotPrimitiveOutput;
+    public synchronized List<String> getIsNotPrimitiveOutput() {
+        return new ArrayList<>(isNotPrimitiveOutput);
     }
 
-    public void addIsNotPrimitiveOutput(String isNotPrimitiveOutput) {
+    public synchronized void addIsNotPrimitiveOutput(String isNotPrimitiveOutput) {
         this.isNotPrimitiveOutput.add(isNotPrimitiveOutput);
     }
+
+    public synchronized long getStageNum(Stage stage) {
+        return stageNums[stage.ordinal()];
+    }
+
+    public void addAll(FailedMethods other) {
+        List<String> classes = other.getNotFoundClasses();
+        List<String> methods = other.getNotFoundMethods();
+        List<String> inputVariables = other.getNotFoundInputVariables();
+        List<String> outputVariables = other.getNotFoundOutputVariables();
+        List<String> objectInput = other.getIsNotObjectInput();
+        List<String> primitiveOutput = other.getIsNotPrimitiveOutput();
+        long[] stages = new long[stageNums.length];
+        for (Stage stage : Stage.values()) {
+            stages[stage.ordinal()] = other.getStageNum(stage);
+        }
+        synchronized (this) {
+            for (int i = 0; i < stages.length; i++) {
+                stageNums[i] += stages[i];
+            }
+            notFoundClasses.addAll(classes);
+            notFoundMethods.addAll(methods);
+            notFoundInputVariables.addAll(inputVariables);
+            notFoundOutputVariables.addAll(outputVariables);
+            isNotObjectInput.addAll(objectInput);
+            isNotPrimitiveOutput.addAll(primitiveOutput);
+        }
+    }
+
+    public synchronized void add(Failure failure) {
+        stageNums[failure.getStage().ordinal()]++;
+        switch (failure.getReason()) {
+            case NOT_FOUND_CLASS:
+                notFoundClasses.add(failure.getName());
+                break;
+            case NOT_FOUND_METHOD:
+                notFoundMethods.add(failure.getName());
+                break;
+            case NOT_FOUND_INPUT_VARIABLE:
+                notFoundInputVariables.add(failure.getName());
+                break;
+            case NOT_FOUND_OUTPUT_VARIABLE:
+                notFoundOutputVariables.add(failure.getName());
+                break;
+            case NOT_OBJECT_INPUT:
+                isNotObjectInput.add(failure.getName());
+                break;
+            case NOT_PRIMITIVE_OUTPUT:
+                isNotPrimitiveOutput.add(failure.getName());
+                break;
+        }
+    }
+
+    public static class Failure {
+        private final Reason reason;
+        private final String name;
+        private final Stage stage;
+
+        public Failure(Reason reason, String name, Stage stage) {
+            this.reason = reason;
+            this.name = name;
+            this.stage = stage;
+        }
+
+        public Reason getReason() {
+            return reason;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Stage getStage() {
+            return stage;
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.Arrays;
+
+// long のキーを箱詰めせずに保持するオープンアドレス法の集合（負のキーは扱わない）
+class LongHashSet {
+    
+    private static final long EMPTY = -1L;
+    
+    private long[] keys;
+    private int size = 0;
+    
+    LongHashSet() {
+        this(16);
+    }
+    
+    LongHashSet(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+    
+    // 新たに追加した場合に true を返す
+    boolean add(long key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return true;
+    }
+    
+    boolean contains(long key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    private void rehash() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int index = hash(key) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+    }
+    
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int)key;
+    }
+    
+    static long pack(int high, int low) {
+        return ((long)high << 32) | (low & 0xffffffffL);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
+
+public class MethodFilter {
+    
+    private final Rules testRules = new Rules();
+    private final Rules includeRules = new Rules();
+    private final Rules excludeRules = new Rules();
+    private boolean includeNonPublic = true;
+    
+    public static MethodFilter defaults() {
+        MethodFilter filter = new MethodFilter();
+        filter.getTestRules()
+              .addNamePattern("Test|test")
+              .addSuperClass("junit.framework.TestCase")
+              .addAnnotation("Test");
+        return filter;
+    }
+    
+    public Rules getTestRules() {
+        return testRules;
+    }
+    
+    public Rules getIncludeRules() {
+        return includeRules;
+    }
+    
+    public Rules getExcludeRules() {
+        return excludeRules;
+    }
+    
+    public void setIncludeNonPublic(boolean includeNonPublic) {
+        this.includeNonPublic = includeNonPublic;
+    }
+    
+    public boolean isTestMethod(JavaMethod jmethod) {
+        return testRules.matches(jmethod);
+    }
+    
+    public boolean isTarget(JavaMethod jmethod) {
+        return !isTestMethod(jmethod) && matchesTarget(jmethod);
+    }
+    
+    // テストメソッドかどうかは呼び出し側で判定済みのものとして，それ以外の条件を調べる
+    public boolean matchesTarget(JavaMethod jmethod) {
+        return !jmethod.isConstructor() &&
+                jmethod.getDeclaringClass().getTypeBinding().isTopLevel() &&
+                jmethod.isInProject() &&
+                (jmethod.isPublic() || includeNonPublic) &&
+                (includeRules.isEmpty() || includeRules.matches(jmethod)) &&
+                !excludeRules.matches(jmethod);
+    }
+    
+    public static class Rules {
+        private final List<Pattern> namePatterns = new ArrayList<>();
+        private final Set<String> superClasses = new HashSet<>();
+        private final Set<String> annotations = new HashSet<>();
+        
+        private final Map<String, Boolean> superClassMatches = new ConcurrentHashMap<>();
+        
+        public Rules addNamePattern(String regex) {
+            namePatterns.add(Pattern.compile(regex));
+            return this;
+        }
+        
+        public Rules addSuperClass(String fqn) {
+            superClasses.add(fqn);
+            superClassMatches.clear();
+            return this;
+        }
+        
+        public Rules addAnnotation(String name) {
+            annotations.add(name);
+            return this;
+        }
+        
+        public boolean isEmpty() {
+            return namePatterns.isEmpty() && superClasses.isEmpty() && annotations.isEmpty();
+        }
+        
+        public boolean matches(JavaMethod jmethod) {
+            JavaClass jclass = jmethod.getDeclaringClass();
+            if (jclass == null) {
+                return false;
+            }
+            
+            String fqn = jmethod.getQualifiedName().fqn();
+            for (Pattern pattern : namePatterns) {
+                if (pattern.matcher(fqn).find()) {
+                    return true;
+                }
+            }
+            
+            if (!superClasses.isEmpty() && matchesSuperClass(jclass)) {
+                return true;
+            }
+            
+            return !annotations.isEmpty() && annotations.contains(MethodFinder.getAnnotation(jmethod));
+        }
+        
+        private boolean matchesSuperClass(JavaClass jclass) {
+            return superClassMatches.computeIfAbsent(jclass.getQualifiedName().fqn(), fqn -> {
+                JavaClass superClass = jclass.getSuperClass();
+                return superClass != null && superClasses.contains(superClass.getQualifiedName().fqn());
+            });
+        }
+    }
+}
@@ -5,8 +5,6 @@ import org.jtool.srcmodel.JavaClass;
 import org.jtool.srcmodel.JavaMethod;
 
 import org.eclipse.jdt.core.dom.MethodDeclaration;
-import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.eclipse.jdt.core.dom.Javadoc;
 
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
@@ -15,63 +13,145 @@ import org.eclipse.jdt.core.dom.Name;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.regex.*;
-
-import javassist.compiler.Javac;
-import javassist.util.proxy.MethodFilter;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class MethodFinder {
 
-    private static final boolean nonPublicFlag = true;
-
     private List<JavaMethod> allMethods = new ArrayList<JavaMethod>();
-    private List<MethodSeq> methodSeqList = new ArrayList<MethodSeq>();
     private List<MethodSeq> targetMethodSeqList = new ArrayList<MethodSeq>();
-    private List<JavaClass> allClasses = new ArrayList<JavaClass>();
-    private int allMethodLoc = 0;
+    private ProjectStatistics statistics;
+
+    private MethodFilter filter = MethodFilter.defaults();
+    private CallGraphSnapshot snapshot;
+    private CallGraph callGraph;
+    private BitSet testChecked;
+    private BitSet testMethods;
+    private BitSet targetChecked;
+    private BitSet targetMethods;
+    private Metrics metrics = new Metrics();
+    private int candidateNum = 0;
+    private boolean deduplicatePairs = true;
+    private boolean groupByClass = false;
+    private long rawPairNum = 0;
+    private long pairNum = 0;
+    private volatile int completedCandidateNum = 0;
+
+    public void setFilter(MethodFilter filter) {
+        this.filter = filter;
+    }
+
+    public void setSnapshot(CallGraphSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    // 構築済みの呼び出しグラフを使い回す場合に設定する
+    public void setCallGraph(CallGraph callGraph) {
+        this.callGraph = callGraph;
+    }
+
+    // 集計済みの統計を使い回す場合に設定する（呼び出しグラフと同じプロジェクトから集めたもの）
+    public void setStatistics(ProjectStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    // 同じ呼び出し元と呼び出し先の組が別の経路で現れても，最初の1つだけを返す
+    public void setDeduplicatePairs(boolean deduplicatePairs) {
+        this.deduplicatePairs = deduplicatePairs;
+    }
+
+    /*
+     * 呼び出し先を宣言クラスごとにまとめて列挙する．
+     * 各クラスの呼び出し先は最初に見つかったクラスの位置に，見つかった順のまま並ぶので，
+     * 同じクラスの系列が連続し，クラス単位で解析結果を破棄できる．
+     * 重複の判定は呼び出し先ごとに閉じているので，返す系列の集合は変わらず順序（と通し番号）だけが変わる．
+     */
+    public void setGroupByClass(boolean groupByClass) {
+        this.groupByClass = groupByClass;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
 
-    int i = 0;
     public void run(JavaProject jproject, int loc, int callChainNum) {
+        stream(jproject, loc, callChainNum).forEach(targetMethodSeqList::add);
+    }
+
+    @SuppressWarnings("try")
+    public Stream<MethodSeq> stream(JavaProject jproject, int loc, int callChainNum) {
+        if (callGraph == null) {
+            try (Metrics.Timer timer = metrics.start(Metrics.Phase.CALL_GRAPH)) {
+                if (snapshot != null) {
+                    callGraph = snapshot.loadOrBuild(jproject);
+                } else {
+                    callGraph = CallGraph.build(jproject);
+                }
+            }
+        }
+        allMethods.clear();
+        testChecked = new BitSet(callGraph.size());
+        testMethods = new BitSet(callGraph.size());
+        targetChecked = new BitSet(callGraph.size());
+        targetMethods = new BitSet(callGraph.size());
+        
         for (JavaClass jc : jproject.getClasses()) {
             for (JavaMethod jm : jc.getMethods()) {
-                if (!MethodFinder.isTestMethod(jm)){
+                if (!isTestMethod(callGraph.getId(jm))){
                     allMethods.add(jm);
                 }
             }
         }
-        
-        List<JavaMethod> methodList = new ArrayList<JavaMethod>();
-        for (JavaMethod jm : allMethods) {
-            collectTargetCandidates(jm, methodList, callChainNum - 1);
+        if (statistics == null) {
+            try (Metrics.Timer timer = metrics.start(Metrics.Phase.STATISTICS)) {
+                statistics = ProjectStatistics.collect(callGraph, allMethods);
+            }
         }
-
-        for (JavaMethod jmethod : methodList) {
-            collectCallingMethodSeqList(jmethod, new ArrayList<JavaMethod>(), callChainNum);
+        if (callChainNum < 1) {
+            return Stream.empty();
         }
-
-        for (MethodSeq seq : methodSeqList) {
-            int loc1 = MethodFinder.getLoc(seq.caller());
-            if (loc1 > loc) {
-                targetMethodSeqList.add(seq);
+        
+        List<Integer> methodList = new ArrayList<Integer>();
+        try (Metrics.Timer timer = metrics.start(Metrics.Phase.CANDIDATES)) {
+            BitSet candidates = new BitSet(callGraph.size());
+            BitSet[] expanded = new BitSet[callChainNum];
+            for (int count = 0; count < callChainNum; count++) {
+                expanded[count] = new BitSet(callGraph.size());
+            }
+            for (JavaMethod jm : allMethods) {
+                collectTargetCandidates(callGraph.getId(jm), methodList, candidates, expanded, callChainNum - 1);
+            }
+            if (groupByClass) {
+                methodList = groupByClass(methodList);
             }
         }
+        candidateNum = methodList.size();
+        completedCandidateNum = 0;
+        rawPairNum = 0;
+        pairNum = 0;
+
+        Iterator<MethodSeq> iterator = new MethodSeqIterator(methodList, loc, callChainNum);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
     public int getAllMethodLoc() {
-        for (JavaMethod jm : allMethods) {
-            int loc = MethodFinder.getLoc(jm);
-            allMethodLoc = allMethodLoc + loc;
-        }
-        return allMethodLoc;
+        return statistics != null ? statistics.getAllMethodLoc() : 0;
     }
 
     public int getClassNum(JavaProject jproject) {
-        for (JavaMethod jm : allMethods) {
-            if (!allClasses.contains(jm.getDeclaringClass())) {
-                allClasses.add(jm.getDeclaringClass());
-            }
-        }
-        return allClasses.size();
+        return statistics != null ? statistics.getClassNum() : 0;
+    }
+
+    public ProjectStatistics getStatistics() {
+        return statistics;
     }
 
     public List<JavaMethod> getAllMethods() {
@@ -82,67 +162,176 @@ public class MethodFinder {
         return targetMethodSeqList;
     }
 
-    private boolean isTarget(JavaMethod jmethod) {
-        return !MethodFinder.isTestMethod(jmethod) &&
-                !jmethod.isConstructor() &&
-                jmethod.getDeclaringClass().getTypeBinding().isTopLevel() &&
-                jmethod.isInProject() &&
-                (jmethod.isPublic() || nonPublicFlag);
+    public CallGraph getCallGraph() {
+        return callGraph;
     }
 
+    public int getCandidateNum() {
+        return candidateNum;
+    }
 
-    private void collectTargetCandidates(JavaMethod jmethod, List<JavaMethod> calledMethods, int count) {
-        for (JavaMethod jm : jmethod.getCalledMethodsInProject()) {
-            if (count == 0) {  
-                if (isTarget(jm)) {
-                    if (!calledMethods.contains(jm)) {
-                        calledMethods.add(jm);
-                    }
-                }
-            } else {
-                collectTargetCandidates(jm, calledMethods, count - 1);
+    // 重複を除く前の組の数
+    public long getRawPairNum() {
+        return rawPairNum;
+    }
+
+    public long getPairNum() {
+        return pairNum;
+    }
+
+    // 系列の列挙を終えた呼び出し先の数（進捗表示用）
+    public int getCompletedCandidateNum() {
+        return completedCandidateNum;
+    }
+
+    private boolean isTarget(int id) {
+        if (!targetChecked.get(id)) {
+            targetChecked.set(id);
+            if (!isTestMethod(id) && filter.matchesTarget(callGraph.getMethod(id))) {
+                targetMethods.set(id);
             }
         }
+        return targetMethods.get(id);
     }
 
-    private static boolean isTestMethod(JavaMethod jmethod) {
-        if (jmethod.getDeclaringClass() == null) {
-            return false;
+    private boolean isTestMethod(int id) {
+        if (!testChecked.get(id)) {
+            testChecked.set(id);
+            if (filter.isTestMethod(callGraph.getMethod(id))) {
+                testMethods.set(id);
+            }
         }
+        return testMethods.get(id);
+    }
 
-        Pattern p = Pattern.compile("Test");
-        Pattern q = Pattern.compile("test");
-    
-        if (p.matcher(jmethod.getQualifiedName().fqn()).find() || q.matcher(jmethod.getQualifiedName().fqn()).find()) {
-            return true;
+    private List<Integer> groupByClass(List<Integer> methodList) {
+        Map<String, List<Integer>> groups = new LinkedHashMap<String, List<Integer>>();
+        for (int id : methodList) {
+            String className = callGraph.getMethod(id).getDeclaringClass().getQualifiedName().fqn();
+            groups.computeIfAbsent(className, name -> new ArrayList<Integer>()).add(id);
         }
+        List<Integer> grouped = new ArrayList<Integer>(methodList.size());
+        for (List<Integer> group : groups.values()) {
+            grouped.addAll(group);
+        }
+        return grouped;
+    }
 
-        JavaClass jclass = jmethod.getDeclaringClass().getSuperClass();
-        if (jclass != null) {
-            if (jclass.getQualifiedName().fqn().equals("junit.framework.TestCase")) {
-                return true;
+    // (メソッド, 残り段数) の組が展開済みなら，その先の候補は既に順序通り追加されている
+    private void collectTargetCandidates(int id, List<Integer> calledMethods, BitSet candidates, BitSet[] expanded, int count) {
+        if (expanded[count].get(id)) {
+            return;
+        }
+        expanded[count].set(id);
+        
+        for (int index = callGraph.getCalleeBegin(id); index < callGraph.getCalleeEnd(id); index++) {
+            int callee = callGraph.getCallee(index);
+            if (count == 0) {
+                if (isTarget(callee) && !candidates.get(callee)) {
+                    candidates.set(callee);
+                    calledMethods.add(callee);
+                }
+            } else {
+                collectTargetCandidates(callee, calledMethods, candidates, expanded, count - 1);
             }
         }
-
-        String anno = MethodFinder.getAnnotation(jmethod);
-        return "Test".equals(anno);
     }
 
-    private void collectCallingMethodSeqList(JavaMethod jmethod, List<JavaMethod> callingMethods, int count) {
-        if (callingMethods.contains(jmethod) || MethodFinder.isTestMethod(jmethod)) {
-            return;
+    // collectCallingMethodSeqList の再帰を明示的なスタックで置き換え，系列を1つずつ生成する
+    private class MethodSeqIterator implements Iterator<MethodSeq> {
+        private final List<Integer> methodList;
+        private final int loc;
+        private final int callChainNum;
+        
+        private final int[] path;
+        private final int[] cursor;
+        private final BitSet onPath = new BitSet(callGraph.size());
+        private final LongHashSet pairs = deduplicatePairs ? new LongHashSet() : null;
+        private int depth = -1;
+        private int nextCandidate = 0;
+        private MethodSeq next;
+        
+        MethodSeqIterator(List<Integer> methodList, int loc, int callChainNum) {
+            this.methodList = methodList;
+            this.loc = loc;
+            this.callChainNum = callChainNum;
+            this.path = new int[callChainNum + 1];
+            this.cursor = new int[callChainNum + 1];
+        }
+        
+        @SuppressWarnings("try")
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try (Metrics.Timer timer = metrics.start(Metrics.Phase.CHAINS)) {
+                    next = advance();
+                }
+                if (next != null) {
+                    metrics.increment(Metrics.Counter.SEQUENCES);
+                }
+            }
+            return next != null;
         }
         
-        callingMethods.add(jmethod);
+        @Override
+        public MethodSeq next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            MethodSeq seq = next;
+            next = null;
+            return seq;
+        }
         
-        if (count == 0) {
-            MethodSeq seq = new MethodSeq(callingMethods);
-            methodSeqList.add(seq);
-            return;
+        private MethodSeq advance() {
+            while (true) {
+                if (depth < 0) {
+                    completedCandidateNum = nextCandidate;
+                    if (nextCandidate >= methodList.size()) {
+                        return null;
+                    }
+                    int id = methodList.get(nextCandidate++);
+                    if (!isTestMethod(id)) {
+                        push(id);
+                    }
+                    continue;
+                }
+                
+                int id = path[depth];
+                if (cursor[depth] >= callGraph.getCallerEnd(id)) {
+                    onPath.clear(id);
+                    depth--;
+                    continue;
+                }
+                
+                int caller = callGraph.getCaller(cursor[depth]++);
+                if (onPath.get(caller) || isTestMethod(caller)) {
+                    continue;
+                }
+                
+                if (depth + 1 < callChainNum) {
+                    push(caller);
+                } else if (statistics.getLoc(caller) > loc) {
+                    rawPairNum++;
+                    if (pairs != null && !pairs.add(LongHashSet.pack(caller, path[0]))) {
+                        continue;
+                    }
+                    pairNum++;
+                    List<JavaMethod> callingMethods = new ArrayList<JavaMethod>(depth + 2);
+                    for (int i = 0; i <= depth; i++) {
+                        callingMethods.add(callGraph.getMethod(path[i]));
+                    }
+                    callingMethods.add(callGraph.getMethod(caller));
+                    return new MethodSeq(callingMethods, pairNum - 1);
+                }
+            }
         }
         
-        for (JavaMethod jm : jmethod.getCallingMethodsInProject()) {
-            collectCallingMethodSeqList(jm, new ArrayList<JavaMethod>(callingMethods), count - 1);
+        private void push(int id) {
+            depth++;
+            path[depth] = id;
+            cursor[depth] = callGraph.getCallerBegin(id);
+            onPath.set(id);
         }
     }
 
@@ -162,31 +351,4 @@ public class MethodFinder {
         }
         return "";
     }
-
-    private static int getLoc(JavaMethod jmethod) {
-        if (jmethod.getASTNode() instanceof MethodDeclaration) {
-            MethodDeclaration methodDecl = (MethodDeclaration)jmethod.getASTNode();
-            CompilationUnit cu = (CompilationUnit)methodDecl.getRoot();
-            
-            int startPosition = methodDecl.getStartPosition();
-            int endPosition = methodDecl.getStartPosition() + methodDecl.getLength() - 1;
-            int upperLineNumber = cu.getLineNumber(startPosition);
-            int bottomLineNumber = cu.getLineNumber(endPosition);
-            
-            int docupperLineNumber = 0;
-            int docbottomLineNumber = 0;
-            Javadoc javadoc = methodDecl.getJavadoc();
-            if (javadoc != null) {
-                int docstartPosition = javadoc.getStartPosition();
-                int docendPosition = javadoc.getStartPosition() + javadoc.getLength() - 1;
-                docupperLineNumber = cu.getLineNumber(docstartPosition);
-                docbottomLineNumber = cu.getLineNumber(docendPosition);
-            }
-            
-            int loc = (bottomLineNumber - upperLineNumber) - (docbottomLineNumber - docupperLineNumber);
-            
-            return loc;
-        }
-        return 0;
-    }
 }
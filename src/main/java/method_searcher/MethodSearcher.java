@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.jtool.jxplatform.builder.ModelBuilder;
+import org.jtool.jxplatform.builder.ModelBuilderBatch;
+import org.jtool.srcmodel.JavaProject;
+
+/*
+ * ファイルを介さずに検索するための API．
+ * 結果は呼び出し元と呼び出し先の組ごとの CalleeMethod を遅延評価のストリームで返すので，
+ * 途中で打ち切ったり，さらに絞り込んだりできる．不合格の組は渡された FailedMethods に記録する．
+ * 呼び出しグラフと呼び出し先の解析結果は検索の間で共有する．
+ */
+public class MethodSearcher implements AutoCloseable {
+    
+    private final List<Project> projects = new ArrayList<>();
+    private final ModelBuilder builder;
+    
+    public MethodSearcher(List<JavaProject> jprojects) {
+        this(jprojects, null);
+    }
+    
+    public MethodSearcher(JavaProject jproject) {
+        this(Collections.singletonList(jproject), null);
+    }
+    
+    private MethodSearcher(List<JavaProject> jprojects, ModelBuilder builder) {
+        for (JavaProject jproject : jprojects) {
+            projects.add(new Project(jproject));
+        }
+        this.builder = builder;
+    }
+    
+    // ソースのパスからモデルを構築する．構築したモデルは close で破棄する
+    public static MethodSearcher open(String name, String target) {
+        ModelBuilder builder = new ModelBuilderBatch();
+        builder.analyzeBytecode(false);
+        builder.useCache(true);
+        builder.setConsoleVisible(false);
+        return new MethodSearcher(builder.build(name, target), builder);
+    }
+    
+    public List<JavaProject> getProjects() {
+        List<JavaProject> jprojects = new ArrayList<>();
+        for (Project project : projects) {
+            jprojects.add(project.jproject);
+        }
+        return jprojects;
+    }
+    
+    public Stream<CalleeMethod> search(SearchQuery query) {
+        return search(query, new FailedMethods());
+    }
+    
+    public Stream<CalleeMethod> search(SearchQuery query, FailedMethods failedMethods) {
+        MethodFilter filter = query.createMethodFilter();
+        CalleeChecker checker = query.createChecker();
+        return projects.stream().flatMap(project -> project.search(query, filter, checker, failedMethods));
+    }
+    
+    @Override
+    public void close() {
+        if (builder != null) {
+            builder.unbuild();
+        }
+    }
+    
+    private static class Project {
+        final JavaProject jproject;
+        final AnalysisCache cache;
+        CallGraph callGraph;
+        
+        Project(JavaProject jproject) {
+            this.jproject = jproject;
+            this.cache = new AnalysisCache(jproject);
+        }
+        
+        synchronized CallGraph getCallGraph() {
+            if (callGraph == null) {
+                callGraph = CallGraph.build(jproject);
+            }
+            return callGraph;
+        }
+        
+        Stream<CalleeMethod> search(SearchQuery query, MethodFilter filter, CalleeChecker checker,
+                FailedMethods failedMethods) {
+            MethodFinder methodFinder = new MethodFinder();
+            methodFinder.setFilter(filter);
+            methodFinder.setCallGraph(getCallGraph());
+            return methodFinder.stream(jproject, query.getMinLoc(), query.getCallingLimit())
+                    .map(seq -> new CalleeMethod(seq, cache))
+                    .filter(calleeMethod -> checker.check(jproject, calleeMethod, failedMethods));
+        }
+    }
+}
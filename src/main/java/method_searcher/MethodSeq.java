@@ -11,9 +11,20 @@
  
  class MethodSeq {
      private List<JavaMethod> methodChain;
+     private long index;
      
      MethodSeq(List<JavaMethod> methodChain) {
+         this(methodChain, -1);
+     }
+     
+     // 列挙順の通し番号．列挙の条件が同じなら実行ごとに変わらない
+     MethodSeq(List<JavaMethod> methodChain, long index) {
          this.methodChain = methodChain;
+         this.index = index;
+     }
+     
+     public long getIndex() {
+         return index;
      }
      
      public List<JavaMethod> methodChain1() {
@@ -0,0 +1,291 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Metrics {
+    
+    /*
+     * 入れ子になる段階（CHECK の中の VARIABLES など）の時間は外側にも含まれる．
+     * 系列や呼び出し先ごとに何度も計る段階は，CPU 時間と割り当て量を一部の呼び出しだけで測り，
+     * 全体の値はその平均から見積もる（経過時間と回数はすべての呼び出しで測る）．
+     */
+    public enum Phase {
+        MODEL_BUILD("Model build", false),
+        CALL_GRAPH("Call graph", false),
+        STATISTICS("Project statistics", false),
+        CANDIDATES("Candidate collection", false),
+        CHAINS("Chain enumeration", true),
+        CFG_FETCH("CFG fetch", true),
+        VARIABLES("Variable extraction", true),
+        CHECK("Check", true),
+        WRITE("Result writing", true);
+        
+        private final String label;
+        private final boolean sampled;
+        
+        Phase(String label, boolean sampled) {
+            this.label = label;
+            this.sampled = sampled;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+        
+        public boolean isSampled() {
+            return sampled;
+        }
+    }
+    
+    /*
+     * 回数は実行のたびに同じになるので結果の見出しにも載せる．
+     * 列挙した系列の数は見出しの All Method Pairs と重なり，パイプラインの待ちはスレッドの動きで変わるので載せない．
+     */
+    public enum Counter {
+        SEQUENCES("Sequences enumerated", false),
+        CFG_FETCHES("CFGs fetched", true),
+        ACCESSOR_SCANS("Accessor scans", true),
+        TYPE_SCANS("Type member scans", true),
+        CALLEE_METHODS("Callee methods analyzed", true),
+        PAIRS_CHECKED("Pairs checked", true),
+        PAIRS_RECORDED("Pairs recorded", true),
+        PIPELINE_PRODUCER_WAITS("Pipeline producer waits", false),
+        PIPELINE_WORKER_WAITS("Pipeline worker waits", false);
+        
+        private final String label;
+        private final boolean summarized;
+        
+        Counter(String label, boolean summarized) {
+            this.label = label;
+            this.summarized = summarized;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+        
+        public boolean isSummarized() {
+            return summarized;
+        }
+    }
+    
+    // 何回に1回 CPU 時間と割り当て量を測るか
+    private static final int SAMPLE_INTERVAL = 64;
+    
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+    
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)THREADS;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean;
+            }
+        }
+        return null;
+    }
+    
+    private final LongAdder[] calls = adders(Phase.values().length);
+    private final LongAdder[] wallNanos = adders(Phase.values().length);
+    private final LongAdder[] sampledCalls = adders(Phase.values().length);
+    private final LongAdder[] cpuNanos = adders(Phase.values().length);
+    private final LongAdder[] allocatedBytes = adders(Phase.values().length);
+    private final LongAdder[] counters = adders(Counter.values().length);
+    private final long startTime = System.nanoTime();
+    
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+    
+    public Timer start(Phase phase) {
+        return new Timer(phase);
+    }
+    
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+    
+    public void addAll(Metrics other) {
+        for (Phase phase : Phase.values()) {
+            int i = phase.ordinal();
+            calls[i].add(other.calls[i].sum());
+            wallNanos[i].add(other.wallNanos[i].sum());
+            sampledCalls[i].add(other.sampledCalls[i].sum());
+            cpuNanos[i].add(other.cpuNanos[i].sum());
+            allocatedBytes[i].add(other.allocatedBytes[i].sum());
+        }
+        for (Counter counter : Counter.values()) {
+            counters[counter.ordinal()].add(other.counters[counter.ordinal()].sum());
+        }
+    }
+    
+    /*
+     * 分割実行の中間ファイルに載せる形式．値は丸めずに書き出し，取りまとめ側で各ワーカーの分を足し合わせる．
+     * #phase \t 段階 \t 回数 \t 経過時間 \t 測った回数 \t CPU 時間 \t 割り当て量（ns, bytes），または #counter \t 名前 \t 値
+     */
+    static final String PHASE_LINE = "#phase";
+    static final String COUNTER_LINE = "#counter";
+    
+    List<String> toLines() {
+        List<String> lines = new ArrayList<>();
+        for (Phase phase : Phase.values()) {
+            int i = phase.ordinal();
+            lines.add(PHASE_LINE + "\t" + phase.name() + "\t" + calls[i].sum() + "\t" + wallNanos[i].sum() + "\t" +
+                    sampledCalls[i].sum() + "\t" + cpuNanos[i].sum() + "\t" + allocatedBytes[i].sum());
+        }
+        for (Counter counter : Counter.values()) {
+            lines.add(COUNTER_LINE + "\t" + counter.name() + "\t" + getCount(counter));
+        }
+        return lines;
+    }
+    
+    void addLine(String[] cols) {
+        if (cols[0].equals(PHASE_LINE) && cols.length == 7) {
+            int i = Phase.valueOf(cols[1]).ordinal();
+            calls[i].add(Long.parseLong(cols[2]));
+            wallNanos[i].add(Long.parseLong(cols[3]));
+            sampledCalls[i].add(Long.parseLong(cols[4]));
+            cpuNanos[i].add(Long.parseLong(cols[5]));
+            allocatedBytes[i].add(Long.parseLong(cols[6]));
+        } else if (cols[0].equals(COUNTER_LINE) && cols.length == 3) {
+            counters[Counter.valueOf(cols[1]).ordinal()].add(Long.parseLong(cols[2]));
+        } else {
+            throw new IllegalArgumentException("Invalid metrics line: " + String.join("\t", cols));
+        }
+    }
+    
+    public long getCalls(Phase phase) {
+        return calls[phase.ordinal()].sum();
+    }
+    
+    public long getWallMillis(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(wallNanos[phase.ordinal()].sum());
+    }
+    
+    public long getSampledCalls(Phase phase) {
+        return sampledCalls[phase.ordinal()].sum();
+    }
+    
+    public long getCpuMillis(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(estimate(phase, cpuNanos));
+    }
+    
+    public long getAllocatedBytes(Phase phase) {
+        return estimate(phase, allocatedBytes);
+    }
+    
+    // 測った呼び出しの平均に全体の回数を掛ける
+    private long estimate(Phase phase, LongAdder[] values) {
+        int i = phase.ordinal();
+        long sampled = sampledCalls[i].sum();
+        if (sampled == 0) {
+            return 0;
+        }
+        return (long)((double)values[i].sum() * calls[i].sum() / sampled);
+    }
+    
+    public long getCount(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+    
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+    
+    // 時間と割り当て量は実行ごとに変わるので，見出しには回数だけを載せ，それらは write で別のファイルに書く
+    public void putCounters(Map<String, Object> summary) {
+        for (Counter counter : Counter.values()) {
+            if (counter.isSummarized()) {
+                summary.put(counter.getLabel(), getCount(counter));
+            }
+        }
+    }
+    
+    public void write(Path file, String name, Map<String, ?> summary) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\n  \"project\": " + ResultWriter.quote(name) + ",\n");
+            writer.write("  \"elapsedMillis\": " + getElapsedMillis() + ",\n");
+            writer.write("  \"phases\": {");
+            String separator = "\n";
+            for (Phase phase : Phase.values()) {
+                writer.write(separator + "    " + ResultWriter.quote(phase.name()) + ": {\"calls\": " + getCalls(phase) +
+                        ", \"sampledCalls\": " + getSampledCalls(phase) + ", \"wallMillis\": " + getWallMillis(phase) +
+                        ", \"cpuMillis\": " + getCpuMillis(phase) +
+                        ", \"allocatedBytes\": " + getAllocatedBytes(phase) + "}");
+                separator = ",\n";
+            }
+            writer.write("\n  },\n  \"counters\": {");
+            separator = "\n";
+            for (Counter counter : Counter.values()) {
+                writer.write(separator + "    " + ResultWriter.quote(counter.name()) + ": " + getCount(counter));
+                separator = ",\n";
+            }
+            writer.write("\n  },\n  \"summary\": {");
+            separator = "\n";
+            for (Map.Entry<String, ?> entry : summary.entrySet()) {
+                Object value = entry.getValue();
+                writer.write(separator + "    " + ResultWriter.quote(entry.getKey()) + ": " +
+                        (value instanceof Number ? value.toString() : ResultWriter.quote(String.valueOf(value))));
+                separator = ",\n";
+            }
+            writer.write("\n  }\n}\n");
+        }
+    }
+    
+    // 開始したスレッドで閉じること（CPU 時間と割り当て量はスレッド単位で測る）
+    public class Timer implements AutoCloseable {
+        private final Phase phase;
+        private final boolean measured;
+        private final long wallStart;
+        private final long cpuStart;
+        private final long allocatedStart;
+        
+        private Timer(Phase phase) {
+            this.phase = phase;
+            this.measured = !phase.isSampled() || ThreadLocalRandom.current().nextInt(SAMPLE_INTERVAL) == 0;
+            this.wallStart = System.nanoTime();
+            this.cpuStart = measured && CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+            this.allocatedStart = measured && ALLOCATION != null ?
+                    ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+        }
+        
+        @Override
+        public void close() {
+            int i = phase.ordinal();
+            calls[i].increment();
+            wallNanos[i].add(System.nanoTime() - wallStart);
+            if (!measured) {
+                return;
+            }
+            sampledCalls[i].increment();
+            if (CPU_TIME) {
+                cpuNanos[i].add(THREADS.getCurrentThreadCpuTime() - cpuStart);
+            }
+            if (ALLOCATION != null) {
+                allocatedBytes[i].add(ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaField;
+import org.jtool.srcmodel.JavaMethod;
+import org.jtool.srcmodel.JavaProject;
+
+import method_searcher.ProjectVariable.Direction;
+import method_searcher.ProjectVariable.Sort;
+
+// 型ごとに，出力変数として観測できる public な基本型のフィールドと引数なしのメソッドを保持する
+public class ObservableMembers {
+    
+    private static final ObservableMembers EMPTY = new ObservableMembers(Collections.emptyList(), 0);
+    
+    private final List<Member> members;
+    private final int scannedNum;
+    
+    private ObservableMembers(List<Member> members, int scannedNum) {
+        this.members = members;
+        this.scannedNum = scannedNum;
+    }
+    
+    public static ObservableMembers collect(JavaProject targetProject, String rawType) {
+        JavaClass jc = targetProject.getClass(rawType);
+        if (jc == null) {
+            jc = targetProject.getExternalClass(rawType);
+        }
+        if (jc == null) {
+            return EMPTY;
+        }
+        
+        List<Member> members = new ArrayList<>();
+        for (JavaField jf : jc.getFields()) {
+            boolean primitive = jf.isPrimitiveType();
+            if (jf.isPublic() && (primitive || ProjectVariable.seemsPrimitive(jf.getType()))) {
+                members.add(new Member(false, jf.getQualifiedName().fqn(), jf.getType(), primitive,
+                        jf.getModifiers(), jf.getName()));
+            }
+        }
+        
+        for (JavaMethod jm : jc.getMethods()) {
+            boolean primitive = jm.isPrimitiveReturnType();
+            if (jm.isPublic() && (primitive || ProjectVariable.seemsPrimitive(jm.getReturnType()))
+                    && jm.getParameterSize() == 0 && !jm.getName().equals("toString")) {
+                members.add(new Member(true, jm.getQualifiedName().fqn(), jm.getReturnType(), primitive,
+                        jm.getModifiers(), jm.getName() + "()"));
+            }
+        }
+        return new ObservableMembers(Collections.unmodifiableList(members), jc.getFields().size() + jc.getMethods().size());
+    }
+    
+    // 保持しているメンバを tvar の子として複製する
+    public void expand(ProjectVariable tvar) {
+        for (Member member : members) {
+            Sort sort;
+            if (member.method) {
+                sort = tvar.isField() ? Sort.FMETHOD : Sort.RMETHOD;
+            } else {
+                sort = tvar.isField() ? Sort.FFIELD : Sort.RFIELD;
+            }
+            ProjectVariable tv = new ProjectVariable(tvar.getCFG(), tvar.getCFGNode(), tvar.getVariable(),
+                    sort, Direction.OUT, member.qname, member.type, member.primitive, member.modifiers, member.access);
+            tvar.addEnclosingVariable(tv);
+        }
+    }
+    
+    public int size() {
+        return members.size();
+    }
+    
+    public int getScannedNum() {
+        return scannedNum;
+    }
+    
+    private static class Member {
+        final boolean method;
+        final String qname;
+        final String type;
+        final boolean primitive;
+        final int modifiers;
+        final String access;
+        
+        Member(boolean method, String qname, String type, boolean primitive, int modifiers, String access) {
+            this.method = method;
+            this.qname = qname;
+            this.type = type;
+            this.primitive = primitive;
+            this.modifiers = modifiers;
+            this.access = access;
+        }
+    }
+}
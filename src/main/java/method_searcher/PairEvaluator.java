@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.jtool.srcmodel.JavaProject;
+
+public class PairEvaluator {
+    
+    private final JavaProject jproject;
+    private final AnalysisCache cache;
+    private final CalleeChecker checker;
+    private ResultStore store;
+    private CheckpointJournal journal;
+    
+    public PairEvaluator(AnalysisCache cache, CalleeChecker checker) {
+        this.jproject = cache.getJavaProject();
+        this.cache = cache;
+        this.checker = checker;
+    }
+    
+    public void setResultStore(ResultStore store) {
+        this.store = store;
+    }
+    
+    public void setJournal(CheckpointJournal journal) {
+        this.journal = journal;
+    }
+    
+    @SuppressWarnings("try")
+    public PairOutcome evaluate(MethodSeq seq) {
+        cache.getMetrics().increment(Metrics.Counter.PAIRS_CHECKED);
+        try (Metrics.Timer timer = cache.getMetrics().start(Metrics.Phase.CHECK)) {
+            return evaluateUntimed(seq);
+        }
+    }
+    
+    private PairOutcome evaluateUntimed(MethodSeq seq) {
+        if (journal != null) {
+            // 中断前に検査済みの系列．変数を集めていないので ResultStore には記録されず，次回は検査し直す
+            PairOutcome outcome = journal.lookup(seq);
+            if (outcome != null) {
+                return outcome;
+            }
+        }
+        
+        PairOutcome outcome = store != null ? store.lookup(seq) : null;
+        if (outcome == null) {
+            CalleeMethod calleeMethod = new CalleeMethod(seq, cache);
+            outcome = new PairOutcome(seq.caller().getQualifiedName().fqn(), seq.getName(),
+                    checker.evaluate(jproject, calleeMethod));
+            if (store != null) {
+                store.record(seq, calleeMethod, outcome);
+            }
+        }
+        
+        if (journal != null) {
+            try {
+                journal.record(seq, outcome);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return outcome;
+    }
+    
+    @SuppressWarnings("try")
+    public void record(PairOutcome outcome, ResultWriter writer, FailedMethods failedMethods) throws IOException {
+        cache.getMetrics().increment(Metrics.Counter.PAIRS_RECORDED);
+        if (outcome.isValid()) {
+            try (Metrics.Timer timer = cache.getMetrics().start(Metrics.Phase.WRITE)) {
+                writer.write(outcome.getCallerName(), outcome.getCalleeName());
+            }
+        } else {
+            failedMethods.add(outcome.getFailure());
+        }
+    }
+}
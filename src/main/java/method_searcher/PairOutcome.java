@@ -0,0 +1,34 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+public class PairOutcome {
+    private final String callerName;
+    private final String calleeName;
+    private final FailedMethods.Failure failure;
+    
+    public PairOutcome(String callerName, String calleeName, FailedMethods.Failure failure) {
+        this.callerName = callerName;
+        this.calleeName = calleeName;
+        this.failure = failure;
+    }
+    
+    public String getCallerName() {
+        return callerName;
+    }
+    
+    public String getCalleeName() {
+        return calleeName;
+    }
+    
+    public boolean isValid() {
+        return failure == null;
+    }
+    
+    public FailedMethods.Failure getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// 系列の総数は列挙し終えるまで分からないので，残り時間は処理済みの呼び出し先の割合から見積もる
+public class ProgressReporter implements Closeable {
+    
+    private final String name;
+    private final Metrics metrics;
+    private final MethodFinder methodFinder;
+    private final PrintStream out;
+    private final long startTime = System.nanoTime();
+    private final ScheduledExecutorService timer;
+    private volatile CheckPipeline pipeline;
+    
+    public ProgressReporter(String name, Metrics metrics, MethodFinder methodFinder, PrintStream out, int intervalSeconds) {
+        this.name = name;
+        this.metrics = metrics;
+        this.methodFinder = methodFinder;
+        this.out = out;
+        if (intervalSeconds > 0) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "progress-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleAtFixedRate(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        } else {
+            timer = null;
+        }
+    }
+    
+    // パイプラインで検査するときは，各段の滞留数と処理速度も表示する
+    public void setPipeline(CheckPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+    
+    public void report() {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        long seqNum = metrics.getCount(Metrics.Counter.SEQUENCES);
+        int done = methodFinder.getCompletedCandidateNum();
+        int total = methodFinder.getCandidateNum();
+        
+        StringBuilder line = new StringBuilder("[progress] ").append(name).append(": ");
+        line.append(seqNum).append(" sequences");
+        line.append(String.format(" (%.1f/s)", seconds > 0 ? seqNum / seconds : 0.0));
+        line.append(", callees ").append(done).append("/").append(total);
+        if (done > 0 && done < total) {
+            long eta = (long)(seconds * (total - done) / done);
+            line.append(String.format(", ETA %d:%02d:%02d", eta / 3600, eta / 60 % 60, eta % 60));
+        }
+        CheckPipeline pipeline = this.pipeline;
+        if (pipeline != null) {
+            long checked = metrics.getCount(Metrics.Counter.PAIRS_CHECKED);
+            long recorded = metrics.getCount(Metrics.Counter.PAIRS_RECORDED);
+            line.append(", queued ").append(pipeline.getCheckQueueSize());
+            line.append(String.format(", checked %d (%.1f/s)", checked, seconds > 0 ? checked / seconds : 0.0));
+            line.append(", waiting ").append(pipeline.getWriteQueueSize() + pipeline.getPendingNum());
+            line.append(String.format(", recorded %d (%.1f/s)", recorded, seconds > 0 ? recorded / seconds : 0.0));
+        }
+        out.println(line);
+    }
+    
+    @Override
+    public void close() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Javadoc;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.jtool.srcmodel.JavaMethod;
+
+/*
+ * 呼び出しグラフ上の全メソッドの行数と，対象メソッドのクラスごとの数を1回の走査で集める．
+ * 行数は呼び出し元の絞り込みにも使うので，メソッドの ID で引けるように保持する．
+ * 結果は不変なので，何度参照しても同じ値を返す．
+ */
+public class ProjectStatistics {
+    
+    private final int[] locs;
+    private final Map<String, Integer> classMethodNums;
+    private final int methodNum;
+    private final int allMethodLoc;
+    
+    private ProjectStatistics(int[] locs, Map<String, Integer> classMethodNums, int methodNum, int allMethodLoc) {
+        this.locs = locs;
+        this.classMethodNums = Collections.unmodifiableMap(classMethodNums);
+        this.methodNum = methodNum;
+        this.allMethodLoc = allMethodLoc;
+    }
+    
+    /*
+     * メソッドの引き当て（スナップショットでは遅延して行う）と呼び出し関係の参照は jxplatform のモデルを
+     * 書き換えることがあり，複数スレッドから呼んでよいという保証はないので一つのスレッドで行う．
+     * 並列に行うのは，引き当て済みのメソッドの AST から行数を数える部分だけにする．
+     */
+    public static ProjectStatistics collect(CallGraph callGraph, List<JavaMethod> methods) {
+        JavaMethod[] resolved = new JavaMethod[callGraph.size()];
+        for (int id = 0; id < resolved.length; id++) {
+            resolved[id] = callGraph.getMethod(id);
+        }
+        int[] locs = new int[resolved.length];
+        IntStream.range(0, resolved.length).parallel()
+                 .forEach(id -> locs[id] = getLoc(resolved[id]));
+        
+        Map<String, Integer> classMethodNums = new HashMap<>();
+        int allMethodLoc = 0;
+        for (JavaMethod jm : methods) {
+            classMethodNums.merge(jm.getDeclaringClass().getQualifiedName().fqn(), 1, Integer::sum);
+            int id = callGraph.getId(jm);
+            allMethodLoc += id >= 0 ? locs[id] : getLoc(jm);
+        }
+        return new ProjectStatistics(locs, classMethodNums, methods.size(), allMethodLoc);
+    }
+    
+    public int getLoc(int id) {
+        return locs[id];
+    }
+    
+    public int getMethodNum() {
+        return methodNum;
+    }
+    
+    public int getClassNum() {
+        return classMethodNums.size();
+    }
+    
+    public int getAllMethodLoc() {
+        return allMethodLoc;
+    }
+    
+    public Map<String, Integer> getClassMethodNums() {
+        return classMethodNums;
+    }
+    
+    public static int getLoc(JavaMethod jmethod) {
+        if (jmethod != null && jmethod.getASTNode() instanceof MethodDeclaration) {
+            MethodDeclaration methodDecl = (MethodDeclaration)jmethod.getASTNode();
+            CompilationUnit cu = (CompilationUnit)methodDecl.getRoot();
+            
+            int startPosition = methodDecl.getStartPosition();
+            int endPosition = methodDecl.getStartPosition() + methodDecl.getLength() - 1;
+            int upperLineNumber = cu.getLineNumber(startPosition);
+            int bottomLineNumber = cu.getLineNumber(endPosition);
+            
+            int docupperLineNumber = 0;
+            int docbottomLineNumber = 0;
+            Javadoc javadoc = methodDecl.getJavadoc();
+            if (javadoc != null) {
+                int docstartPosition = javadoc.getStartPosition();
+                int docendPosition = javadoc.getStartPosition() + javadoc.getLength() - 1;
+                docupperLineNumber = cu.getLineNumber(docstartPosition);
+                docbottomLineNumber = cu.getLineNumber(docendPosition);
+            }
+            
+            int loc = (bottomLineNumber - upperLineNumber) - (docbottomLineNumber - docupperLineNumber);
+            
+            return loc;
+        }
+        return 0;
+    }
+}
@@ -18,22 +18,11 @@
  import java.util.Set;
 import java.util.HashSet;
  import java.util.List;
- import java.util.ArrayList;
  import java.util.Collections;
  import java.util.Comparator;
  
  public class ProjectVariable {
      
-     private final static String simpleType[] = {
-        "java.lang.String",
-        "java.lang.Byte",
-        "java.lang.Short",
-        "java.lang.Integer",
-        "java.lang.Long",
-        "java.lang.Float",
-        "java.lang.Double"
-     };
-     
      public enum Sort {
          FIELD, PARAMETER, RETURN, FFIELD, RFIELD, FMETHOD, RMETHOD,
      }
@@ -60,6 +49,9 @@ import java.util.HashSet;
      
      private JavaMethod accessor;
      
+     private final List<TypeClassifier.TypeInfo> signatureTypes;
+     private final TypeClassifier.TypeInfo outputType;
+     
      public ProjectVariable(CFG cfg, CFGNode node, JVariableReference var,
              Sort sort, Direction dir, String qname, String type, 
              boolean primitive, int modifiers, String access) {
@@ -81,6 +73,10 @@ import java.util.HashSet;
          this.modifiers = modifiers;
          this.access = access;
          this.index = index;
+         
+         // 引数型の並びは変数名に含まれるメソッドの完全限定名から取り出し，メソッドごとの分類結果を共有する
+         this.signatureTypes = TypeClassifier.classifySignature(qname);
+         this.outputType = TypeClassifier.classifyType(type);
      }
      
      public CFG getCFG() {
@@ -193,14 +189,23 @@ import java.util.HashSet;
      }
      
      public static boolean seemsPrimitive(String type) {
-         for (String ptype : simpleType) {
-             if (ptype.equals(type)) {
+         return type != null && TypeClassifier.classify(type).isSimple();
+     }
+     
+     // 変数名に含まれる引数型の並びに，基本型とみなせない型があるか
+     public boolean hasObjectSignatureType() {
+         for (TypeClassifier.TypeInfo info : signatureTypes) {
+             if (!info.isPartOfPrimitive()) {
                  return true;
              }
          }
          return false;
      }
      
+     public boolean hasPrimitiveOutputType() {
+         return outputType.getName().length() > 0 && outputType.containsPrimitive();
+     }
+     
      public boolean isPublic() {
          return Modifier.isPublic(modifiers);
      }
@@ -272,17 +277,24 @@ import java.util.HashSet;
      }
      
      public static JavaMethod findSetter(JavaProject targetProject, JavaClass targetClass, JVariableReference var) {
+         AccessorSearchEvent event = new AccessorSearchEvent();
+         event.begin();
+         int candidates = 0;
+         JavaMethod setter = null;
          for (JavaMethod jm : targetClass.getMethods()) {
              if (jm.isPublic() && jm.getParameterSize() == 1 && jm.getParameter(0).getType().equals(var.getType())) {
-                 CFG cfg = targetProject.getModelBuilder().getCFG(jm);
+                 candidates++;
+                 CFG cfg = CFGProvider.getCFG(targetProject, jm);
                  CFGMethodEntry entry = (CFGMethodEntry)cfg.getEntryNode();
                  JVariableReference param = entry.getFormalIn(0).getDefVariable();
                  if (containsOnlyOneAssignment(cfg, var.getQualifiedName().fqn(), param.getQualifiedName().fqn())) {
-                     return jm;
+                     setter = jm;
+                     break;
                  }
              }
          }
-         return null;
+         commit(event, targetClass, "setter", var, candidates, setter);
+         return setter;
      }
      
      private static boolean containsOnlyOneAssignment(CFG cfg, String defVarName, String useVarName) {
@@ -300,15 +312,35 @@ import java.util.HashSet;
      }
      
      public static JavaMethod findGetter(JavaProject targetProject, JavaClass targetClass, JVariableReference var) {
+         AccessorSearchEvent event = new AccessorSearchEvent();
+         event.begin();
+         int candidates = 0;
+         JavaMethod getter = null;
          for (JavaMethod jm : targetClass.getMethods()) {
              if (jm.isPublic() && jm.getParameterSize() == 0 && jm.getReturnType().equals(var.getType())) {
-                 CFG cfg = targetProject.getModelBuilder().getCFG(jm);
+                 candidates++;
+                 CFG cfg = CFGProvider.getCFG(targetProject, jm);
                  if (containsOnlyOneReturnStatement(cfg, var.getQualifiedName().fqn())) {
-                     return jm;
+                     getter = jm;
+                     break;
                  }
              }
          }
-         return null;
+         commit(event, targetClass, "getter", var, candidates, getter);
+         return getter;
+     }
+     
+     private static void commit(AccessorSearchEvent event, JavaClass targetClass, String kind, JVariableReference var,
+             int candidates, JavaMethod accessor) {
+         event.end();
+         if (event.shouldCommit()) {
+             event.className = targetClass.getQualifiedName().fqn();
+             event.kind = kind;
+             event.variable = var.getQualifiedName().fqn();
+             event.candidates = candidates;
+             event.found = accessor != null ? 1 : 0;
+             event.commit();
+         }
      }
      
      private static boolean containsOnlyOneReturnStatement(CFG cfg, String useVarName) {
@@ -325,13 +357,20 @@ import java.util.HashSet;
      }
      
      private static boolean containsSingleVarible(List<JVariableReference> vars, String name) {
-         List<JVariableReference> vs = new ArrayList<>();
+         return name.equals(getSingleVariableName(vars));
+     }
+     
+     static String getSingleVariableName(List<JVariableReference> vars) {
+         JVariableReference single = null;
          for (JVariableReference var : vars) {
              if (!var.getName().equals("this")) {
-                 vs.add(var);
+                 if (single != null) {
+                     return null;
+                 }
+                 single = var;
              }
          }
-         return vs.size() == 1 && vs.get(0).getQualifiedName().fqn().equals(name);
+         return single != null ? single.getQualifiedName().fqn() : null;
      }
      
      public static void sort(List<? extends ProjectVariable> vars) {
@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaFile;
+import org.jtool.srcmodel.JavaProject;
+
+public class ResultStore {
+
+    private static final String HEADER = "# method_searcher results v3";
+    private static final String VALID = "VALID";
+    private static final String MISSING = "-";
+
+    private final Path file;
+    private final JavaProject jproject;
+
+    private final Map<String, Entry> previous = new ConcurrentHashMap<>();
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final Map<String, String> classHashes = new ConcurrentHashMap<>();
+
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong recomputed = new AtomicLong();
+
+    public ResultStore(Path file, JavaProject jproject) {
+        this.file = file;
+        this.jproject = jproject;
+    }
+
+    public static ResultStore open(Path dir, JavaProject jproject) throws IOException {
+        ResultStore store = new ResultStore(dir.resolve(jproject.getName() + "_results.cache"), jproject);
+        store.load();
+        return store;
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] cols = line.split("\t", -1);
+                if (cols.length == 7) {
+                    Entry entry = new Entry(cols[0], cols[1], cols[2], cols[3], cols[4], cols[5], cols[6]);
+                    previous.put(key(entry.callerName, entry.calleeName), entry);
+                }
+            }
+        }
+    }
+
+    public PairOutcome lookup(MethodSeq seq) {
+        String callerName = seq.caller().getQualifiedName().fqn();
+        String calleeName = seq.getName();
+        String key = key(callerName, calleeName);
+        Entry entry = previous.get(key);
+        if (entry == null || !entry.fingerprint.equals(fingerprint(entry.getDependencies()))) {
+            return null;
+        }
+
+        current.put(key, entry);
+        reused.incrementAndGet();
+        if (entry.outcome.equals(VALID)) {
+            return new PairOutcome(callerName, calleeName, null);
+        }
+        FailedMethods.Failure failure = new FailedMethods.Failure(FailedMethods.Reason.valueOf(entry.outcome), entry.name,
+                FailedMethods.Stage.valueOf(entry.stage));
+        return new PairOutcome(callerName, calleeName, failure);
+    }
+
+    public void record(MethodSeq seq, CalleeMethod calleeMethod, PairOutcome outcome) {
+        // 呼び出し先と呼び出し元のクラスに加え，出力変数の展開で調べた型のクラスにも依存する
+        Set<String> dependencies = new TreeSet<>();
+        dependencies.add(seq.getClassName());
+        dependencies.add(seq.caller().getDeclaringClass().getQualifiedName().fqn());
+        FailedMethods.Reason reason = outcome.isValid() ? null : outcome.getFailure().getReason();
+        /*
+         * 展開されるメンバがなかった型も含める．後から基本型の getter やフィールドが加わると結果が変わるため．
+         * プロジェクトにない型は MISSING として指紋に入るので，その型が後から追加された場合も検査し直す．
+         * シグネチャだけで判定した組は変数を集めていないので，出力変数の型には依存しない
+         */
+        if (calleeMethod.isAnalyzed()) {
+            dependencies.addAll(calleeMethod.getExpandedTypes());
+        }
+
+        String deps = String.join(",", dependencies);
+        Entry entry = new Entry(outcome.getCallerName(), outcome.getCalleeName(), deps, fingerprint(dependencies),
+                outcome.isValid() ? VALID : reason.name(), outcome.isValid() ? MISSING : outcome.getFailure().getName(),
+                outcome.isValid() ? MISSING : outcome.getFailure().getStage().name());
+        current.put(key(entry.callerName, entry.calleeName), entry);
+        recomputed.incrementAndGet();
+    }
+
+    public void save() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write("\n");
+            // 実行ごとに同じ内容になるよう，呼び出し元と呼び出し先の名前順に書く
+            for (Entry entry : new TreeMap<>(current).values()) {
+                writer.write(entry.callerName + "\t" + entry.calleeName + "\t" + entry.dependencies + "\t" +
+                        entry.fingerprint + "\t" + entry.outcome + "\t" + entry.name + "\t" + entry.stage + "\n");
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public long getReusedNum() {
+        return reused.get();
+    }
+
+    public long getRecomputedNum() {
+        return recomputed.get();
+    }
+
+    private String fingerprint(Iterable<String> classNames) {
+        StringBuilder buf = new StringBuilder();
+        for (String className : classNames) {
+            buf.append(className).append('=').append(classHashes.computeIfAbsent(className, this::hashClass)).append(';');
+        }
+        return sha256(buf.toString());
+    }
+
+    private String hashClass(String className) {
+        JavaClass jclass = jproject.getClass(className);
+        if (jclass == null) {
+            return MISSING;
+        }
+        JavaFile jfile = jclass.getFile();
+        if (jfile == null || jfile.getSource() == null) {
+            return MISSING;
+        }
+        return sha256(jfile.getSource());
+    }
+
+    private static String sha256(String str) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder buf = new StringBuilder();
+            for (byte b : digest.digest(str.getBytes(StandardCharsets.UTF_8))) {
+                buf.append(String.format("%02x", b));
+            }
+            return buf.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String key(String callerName, String calleeName) {
+        return callerName + "\t" + calleeName;
+    }
+
+    private static class Entry {
+        final String callerName;
+        final String calleeName;
+        final String dependencies;
+        final String fingerprint;
+        final String outcome;
+        final String name;
+        final String stage;
+
+        Entry(String callerName, String calleeName, String dependencies, String fingerprint, String outcome, String name,
+                String stage) {
+            this.callerName = callerName;
+            this.calleeName = calleeName;
+            this.dependencies = dependencies;
+            this.fingerprint = fingerprint;
+            this.outcome = outcome;
+            this.name = name;
+            this.stage = stage;
+        }
+
+        Set<String> getDependencies() {
+            Set<String> names = new TreeSet<>();
+            for (String name : dependencies.split(",")) {
+                if (!name.isEmpty()) {
+                    names.add(name);
+                }
+            }
+            return names;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class ResultWriter implements Closeable {
+
+    public enum Format {
+        TEXT, JSONL, BOTH,
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path textFile;
+    private final Path bodyFile;
+    private final Output body;
+    private final Output jsonl;
+
+    private final Set<String> targetMethods = new HashSet<>();
+    private long pairNum = 0;
+    private boolean finished = false;
+
+    public ResultWriter(Path textFile, Path jsonlFile) throws IOException {
+        this.textFile = textFile;
+        if (textFile != null) {
+            // ヘッダの件数は最後に確定するので，本体は一時ファイルに流しておく
+            this.bodyFile = textFile.resolveSibling(textFile.getFileName() + ".part");
+            this.body = new Output(bodyFile);
+        } else {
+            this.bodyFile = null;
+            this.body = null;
+        }
+        this.jsonl = jsonlFile != null ? new Output(jsonlFile) : null;
+    }
+
+    public static ResultWriter create(Path dir, String name, Format format) throws IOException {
+        Path textFile = format != Format.JSONL ? dir.resolve(name + "_methods.txt") : null;
+        Path jsonlFile = format != Format.TEXT ? dir.resolve(name + "_methods.jsonl") : null;
+        return new ResultWriter(textFile, jsonlFile);
+    }
+
+    public void write(CalleeMethod method) throws IOException {
+        write(method.getCallerMethod().getQualifiedName().fqn(), method.getTargetMethod().getQualifiedName().fqn());
+    }
+
+    public synchronized void write(String callerName, String calleeName) throws IOException {
+        pairNum++;
+        targetMethods.add(calleeName);
+        if (body != null) {
+            body.write("[\ncallerMethod: " + callerName + "\n");
+            body.write("calleeMethod: " + calleeName + "\n]\n");
+        }
+        if (jsonl != null) {
+            jsonl.write("{\"caller\":" + quote(callerName) + ",\"callee\":" + quote(calleeName) + "}\n");
+        }
+    }
+
+    public synchronized long getPairNum() {
+        return pairNum;
+    }
+
+    public synchronized int getTargetMethodNum() {
+        return targetMethods.size();
+    }
+
+    public synchronized void finish(Map<String, ?> summary) throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+
+        if (body != null) {
+            body.close();
+            try (FileChannel out = FileChannel.open(textFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 FileChannel in = FileChannel.open(bodyFile, StandardOpenOption.READ)) {
+                StringBuilder header = new StringBuilder();
+                for (Map.Entry<String, ?> entry : summary.entrySet()) {
+                    header.append("# ").append(entry.getKey()).append(" = ").append(entry.getValue()).append("\n");
+                }
+                header.append("\n");
+                ByteBuffer buffer = ByteBuffer.wrap(header.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                long position = 0;
+                long size = in.size();
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+            }
+            Files.deleteIfExists(bodyFile);
+        }
+
+        if (jsonl != null) {
+            StringBuilder line = new StringBuilder("{\"summary\":{");
+            String separator = "";
+            for (Map.Entry<String, ?> entry : summary.entrySet()) {
+                line.append(separator).append(quote(entry.getKey())).append(":");
+                Object value = entry.getValue();
+                line.append(value instanceof Number ? value.toString() : quote(String.valueOf(value)));
+                separator = ",";
+            }
+            line.append("}}\n");
+            jsonl.write(line.toString());
+            jsonl.close();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (body != null) {
+            body.close();
+            if (!finished) {
+                Files.deleteIfExists(bodyFile);
+            }
+        }
+        if (jsonl != null) {
+            jsonl.close();
+        }
+    }
+
+    static String quote(String str) {
+        StringBuilder buf = new StringBuilder(str.length() + 2);
+        buf.append('"');
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '"' || c == '\\') {
+                buf.append('\\').append(c);
+            } else if (c < 0x20) {
+                buf.append(String.format("\\u%04x", (int)c));
+            } else {
+                buf.append(c);
+            }
+        }
+        buf.append('"');
+        return buf.toString();
+    }
+
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private boolean closed = false;
+
+        Output(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void write(String str) throws IOException {
+            byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > buffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > buffer.capacity()) {
+                ByteBuffer large = ByteBuffer.wrap(bytes);
+                while (large.hasRemaining()) {
+                    channel.write(large);
+                }
+            } else {
+                buffer.put(bytes);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                flush();
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchOptions {
+
+    private final static int DEFAULT_MIN_LOC = 1;
+    private final static int CALLING_LIMIT = 1;
+
+    private int minLoc = DEFAULT_MIN_LOC;
+    private int callingLimit = CALLING_LIMIT;
+    private int projectThreads = 1;
+    private int checkThreads = 1;
+    private String snapshotDir = null;
+    private boolean publicOnly = false;
+    private List<String> includePatterns = new ArrayList<>();
+    private List<String> excludePatterns = new ArrayList<>();
+    private ResultWriter.Format outputFormat = ResultWriter.Format.TEXT;
+    private boolean incremental = false;
+    private boolean lowMemory = false;
+    private int progressInterval = 10;
+    private boolean server = false;
+    private boolean keepDuplicatePairs = false;
+    private int serverPort = 0;
+    private int shards = 1;
+    private String workerHeap = null;
+    private int maxWorkers = 1;
+    private int shardIndex = -1;
+    private int shardCount = 1;
+    private String partialDir = null;
+    private List<String> workerArgs = new ArrayList<>();
+    private boolean checkpoint = false;
+    private int pipelineWorkers = 0;
+    private int queueSize = 4096;
+
+    public int getMinLoc() {
+        return minLoc;
+    }
+
+    public void setMinLoc(int minLoc) {
+        this.minLoc = minLoc;
+    }
+
+    public int getCallingLimit() {
+        return callingLimit;
+    }
+
+    public void setCallingLimit(int callingLimit) {
+        this.callingLimit = callingLimit;
+    }
+
+    public int getProjectThreads() {
+        return projectThreads;
+    }
+
+    public void setProjectThreads(int projectThreads) {
+        this.projectThreads = Math.max(1, projectThreads);
+    }
+
+    public boolean isParallelProjects() {
+        return projectThreads > 1;
+    }
+
+    public int getCheckThreads() {
+        return checkThreads;
+    }
+
+    public void setCheckThreads(int checkThreads) {
+        this.checkThreads = Math.max(1, checkThreads);
+    }
+
+    public boolean isParallelCheck() {
+        return checkThreads > 1;
+    }
+
+    public String getSnapshotDir() {
+        return snapshotDir;
+    }
+
+    public void setSnapshotDir(String snapshotDir) {
+        this.snapshotDir = snapshotDir;
+    }
+
+    public boolean isPublicOnly() {
+        return publicOnly;
+    }
+
+    public void setPublicOnly(boolean publicOnly) {
+        this.publicOnly = publicOnly;
+    }
+
+    public List<String> getIncludePatterns() {
+        return includePatterns;
+    }
+
+    public void addIncludePattern(String regex) {
+        includePatterns.add(regex);
+    }
+
+    public List<String> getExcludePatterns() {
+        return excludePatterns;
+    }
+
+    public void addExcludePattern(String regex) {
+        excludePatterns.add(regex);
+    }
+
+    public ResultWriter.Format getOutputFormat() {
+        return outputFormat;
+    }
+
+    public void setOutputFormat(ResultWriter.Format outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public boolean isLowMemory() {
+        return lowMemory;
+    }
+
+    public void setLowMemory(boolean lowMemory) {
+        this.lowMemory = lowMemory;
+    }
+
+    public int getProgressInterval() {
+        return progressInterval;
+    }
+
+    public void setProgressInterval(int progressInterval) {
+        this.progressInterval = Math.max(0, progressInterval);
+    }
+
+    public boolean isServer() {
+        return server;
+    }
+
+    public void setServer(boolean server) {
+        this.server = server;
+    }
+
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    public void setServerPort(int serverPort) {
+        this.serverPort = serverPort;
+    }
+
+    public boolean isKeepDuplicatePairs() {
+        return keepDuplicatePairs;
+    }
+
+    public void setKeepDuplicatePairs(boolean keepDuplicatePairs) {
+        this.keepDuplicatePairs = keepDuplicatePairs;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public void setShards(int shards) {
+        this.shards = Math.max(1, shards);
+    }
+
+    public boolean isSharded() {
+        return shards > 1;
+    }
+
+    public String getWorkerHeap() {
+        return workerHeap;
+    }
+
+    public void setWorkerHeap(String workerHeap) {
+        this.workerHeap = workerHeap;
+    }
+
+    // 同時に動かすワーカーの JVM の数．それぞれがモデル全体を持つので，最大のメモリ使用量はこの数に比例する
+    public int getMaxWorkers() {
+        return maxWorkers;
+    }
+
+    public void setMaxWorkers(int maxWorkers) {
+        this.maxWorkers = Math.max(1, maxWorkers);
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShard(int shardIndex, int shardCount) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard: " + shardIndex + "/" + shardCount);
+        }
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+    }
+
+    public boolean isShardWorker() {
+        return shardIndex >= 0;
+    }
+
+    public String getPartialDir() {
+        return partialDir;
+    }
+
+    public void setPartialDir(String partialDir) {
+        this.partialDir = partialDir;
+    }
+
+    // 分割実行の各ワーカーにそのまま渡すオプション
+    public List<String> getWorkerArgs() {
+        return workerArgs;
+    }
+
+    public boolean isCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(boolean checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public int getPipelineWorkers() {
+        return pipelineWorkers;
+    }
+
+    public void setPipelineWorkers(int pipelineWorkers) {
+        this.pipelineWorkers = Math.max(0, pipelineWorkers);
+    }
+
+    public boolean isPipeline() {
+        return pipelineWorkers > 0;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = Math.max(1, queueSize);
+    }
+
+    // 列挙される系列と各系列の判定に影響する条件．途中経過を再利用してよいかの判断に使う
+    public String getInputKey() {
+        return "loc=" + minLoc + ";chain=" + callingLimit + ";publicOnly=" + publicOnly +
+                ";include=" + includePatterns + ";exclude=" + excludePatterns +
+                ";keepDuplicatePairs=" + keepDuplicatePairs + ";lowMemory=" + lowMemory;
+    }
+
+    public SearchQuery toQuery() {
+        SearchQuery query = new SearchQuery();
+        query.setMinLoc(minLoc);
+        query.setCallingLimit(callingLimit);
+        query.setPublicOnly(publicOnly);
+        for (String regex : includePatterns) {
+            query.addIncludePattern(regex);
+        }
+        for (String regex : excludePatterns) {
+            query.addExcludePattern(regex);
+        }
+        return query;
+    }
+
+    public MethodFilter createMethodFilter() {
+        return toQuery().createMethodFilter();
+    }
+
+    public static SearchOptions parse(String[] args, int from) {
+        SearchOptions options = new SearchOptions();
+        boolean queue = false;
+        for (int i = from; i < args.length; i++) {
+            String arg = args[i];
+            int start = i;
+            boolean forward = true;
+            if (arg.equals("-loc")) {
+                options.setMinLoc(intValue(args, ++i));
+            } else if (arg.equals("-chain")) {
+                options.setCallingLimit(intValue(args, ++i));
+            } else if (arg.equals("-threads")) {
+                options.setProjectThreads(intValue(args, ++i));
+            } else if (arg.equals("-checkThreads")) {
+                options.setCheckThreads(intValue(args, ++i));
+            } else if (arg.equals("-snapshot")) {
+                // 省けるのは呼び出し関係の抽出だけで，モデルの構築は毎回行う（CallGraphSnapshot）
+                options.setSnapshotDir(stringValue(args, ++i));
+            } else if (arg.equals("-publicOnly")) {
+                options.setPublicOnly(true);
+            } else if (arg.equals("-include")) {
+                options.addIncludePattern(stringValue(args, ++i));
+            } else if (arg.equals("-exclude")) {
+                options.addExcludePattern(stringValue(args, ++i));
+            } else if (arg.equals("-format")) {
+                // 中間ファイルの形式は決まっているので，出力形式は取りまとめ側だけが使う
+                options.setOutputFormat(ResultWriter.Format.valueOf(stringValue(args, ++i).toUpperCase()));
+                forward = false;
+            } else if (arg.equals("-incremental")) {
+                options.setIncremental(true);
+            } else if (arg.equals("-lowMemory")) {
+                options.setLowMemory(true);
+            } else if (arg.equals("-progress")) {
+                options.setProgressInterval(intValue(args, ++i));
+            } else if (arg.equals("-pipeline")) {
+                options.setPipelineWorkers(intValue(args, ++i));
+            } else if (arg.equals("-queue")) {
+                options.setQueueSize(intValue(args, ++i));
+                queue = true;
+            } else if (arg.equals("-checkpoint")) {
+                options.setCheckpoint(true);
+            } else if (arg.equals("-keepDuplicatePairs")) {
+                options.setKeepDuplicatePairs(true);
+            } else if (arg.equals("-server")) {
+                // ポート番号がなければ標準入出力で問い合わせを受け付ける
+                options.setServer(true);
+                if (i + 1 < args.length && args[i + 1].matches("\\d+")) {
+                    options.setServerPort(intValue(args, ++i));
+                }
+            } else if (arg.equals("-shards")) {
+                options.setShards(intValue(args, ++i));
+                forward = false;
+            } else if (arg.equals("-workerHeap")) {
+                options.setWorkerHeap(stringValue(args, ++i));
+                forward = false;
+            } else if (arg.equals("-maxWorkers")) {
+                options.setMaxWorkers(intValue(args, ++i));
+                forward = false;
+            } else if (arg.equals("-shard")) {
+                // ワーカー用: "-shard 2/8" は 8 分割のうち 2 番目を担当する
+                String[] shard = stringValue(args, ++i).split("/");
+                if (shard.length != 2) {
+                    throw new IllegalArgumentException("Invalid shard: " + args[i]);
+                }
+                options.setShard(Integer.parseInt(shard[0]), Integer.parseInt(shard[1]));
+                forward = false;
+            } else if (arg.equals("-partial")) {
+                options.setPartialDir(stringValue(args, ++i));
+                forward = false;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            if (forward) {
+                for (int j = start; j <= i; j++) {
+                    options.workerArgs.add(args[j]);
+                }
+            }
+        }
+
+        if (options.isSharded() && (options.isServer() || options.isIncremental())) {
+            throw new IllegalArgumentException("-shards cannot be combined with -server or -incremental");
+        }
+        // ワーカーは系列を担当分ずつ一つの流れで検査するので，検査の進め方を変えるオプションには対応しない
+        if ((options.isSharded() || options.isShardWorker()) &&
+                (options.isLowMemory() || options.isPipeline() || options.isParallelProjects())) {
+            throw new IllegalArgumentException("-shards cannot be combined with -lowMemory, -pipeline or -threads");
+        }
+        // 検査の進め方は一つだけ選べる．指定されたオプションを黙って無視しない
+        if (options.isPipeline() && (options.isLowMemory() || options.isParallelCheck())) {
+            throw new IllegalArgumentException("-pipeline cannot be combined with -lowMemory or -checkThreads");
+        }
+        if (queue && !options.isPipeline()) {
+            throw new IllegalArgumentException("-queue requires -pipeline");
+        }
+        if (options.isShardWorker() && options.getPartialDir() == null) {
+            throw new IllegalArgumentException("Missing option: -partial");
+        }
+        return options;
+    }
+
+    private static int intValue(String[] args, int index) {
+        return Integer.parseInt(stringValue(args, index));
+    }
+
+    private static String stringValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + args[index - 1]);
+        }
+        return args[index];
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// MethodSearcher に渡す検索条件
+public class SearchQuery {
+    
+    private int minLoc = 1;
+    private int callingLimit = 1;
+    private boolean publicOnly = false;
+    private List<String> includePatterns = new ArrayList<>();
+    private List<String> excludePatterns = new ArrayList<>();
+    private boolean objectInputRequired = true;
+    private boolean primitiveOutputRequired = true;
+    
+    public int getMinLoc() {
+        return minLoc;
+    }
+    
+    public void setMinLoc(int minLoc) {
+        this.minLoc = minLoc;
+    }
+    
+    public int getCallingLimit() {
+        return callingLimit;
+    }
+    
+    public void setCallingLimit(int callingLimit) {
+        this.callingLimit = callingLimit;
+    }
+    
+    public boolean isPublicOnly() {
+        return publicOnly;
+    }
+    
+    public void setPublicOnly(boolean publicOnly) {
+        this.publicOnly = publicOnly;
+    }
+    
+    public List<String> getIncludePatterns() {
+        return includePatterns;
+    }
+    
+    public void addIncludePattern(String regex) {
+        includePatterns.add(regex);
+    }
+    
+    public List<String> getExcludePatterns() {
+        return excludePatterns;
+    }
+    
+    public void addExcludePattern(String regex) {
+        excludePatterns.add(regex);
+    }
+    
+    public boolean isObjectInputRequired() {
+        return objectInputRequired;
+    }
+    
+    // false にすると，入力変数が Object 型を含むかどうかを問わない
+    public void setObjectInputRequired(boolean objectInputRequired) {
+        this.objectInputRequired = objectInputRequired;
+    }
+    
+    public boolean isPrimitiveOutputRequired() {
+        return primitiveOutputRequired;
+    }
+    
+    // false にすると，出力変数がプリミティブ型を含むかどうかを問わない
+    public void setPrimitiveOutputRequired(boolean primitiveOutputRequired) {
+        this.primitiveOutputRequired = primitiveOutputRequired;
+    }
+    
+    public MethodFilter createMethodFilter() {
+        MethodFilter filter = MethodFilter.defaults();
+        filter.setIncludeNonPublic(!publicOnly);
+        for (String regex : includePatterns) {
+            filter.getIncludeRules().addNamePattern(regex);
+        }
+        for (String regex : excludePatterns) {
+            filter.getExcludeRules().addNamePattern(regex);
+        }
+        return filter;
+    }
+    
+    public CalleeChecker createChecker() {
+        CalleeChecker checker = new CalleeChecker();
+        checker.setObjectInputRequired(objectInputRequired);
+        checker.setPrimitiveOutputRequired(primitiveOutputRequired);
+        return checker;
+    }
+}
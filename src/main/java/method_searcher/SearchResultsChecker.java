@@ -5,225 +5,330 @@
 
 package method_searcher;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.jtool.jxplatform.builder.ModelBuilder;
 import org.jtool.jxplatform.builder.ModelBuilderBatch;
-import org.jtool.srcmodel.JavaClass;
 import org.jtool.srcmodel.JavaMethod;
 import org.jtool.srcmodel.JavaProject;
 
 public class SearchResultsChecker {
     
-    private final static int DEFAULT_MIN_LOC = 1;
-    private final static int CALLING_LIMIT = 1;
-    private final static String[] primitiveTypes = {
-        "java.lang.String",
-        "string",
-        "char",
-        "java.lang.Byte",
-        "byte[]",
-        "byte",
-        "java.lang.Short",
-        "short",
-        "java.lang.Number",
-        "java.lang.Integer",
-        "integer",
-        "int",
-        "java.lang.Long",
-        "long",
-        "java.lang.Float",
-        "float",
-        "java.lang.Double",
-        "double",
-        "java.lang.Boolean",
-        "boolean",
-
-     };
+    private final static int CHECK_BATCH_SIZE = 1024;
     
-    private void run(String name, String target) {
-        run(name, target, DEFAULT_MIN_LOC);
-    }
+    private CalleeChecker checker = new CalleeChecker();
+    private ForkJoinPool checkPool;
     
-    private void run(String name, String target, int loc) {
+    @SuppressWarnings("try")
+    private void run(String name, String target, SearchOptions options) {
+        if (options.isSharded()) {
+            try {
+                new ShardCoordinator(options).run(name, target, System.out);
+            } catch (IOException e) {
+                // 結果が欠けたまま終わらないよう，異常終了させる
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        
         ModelBuilder builder = new ModelBuilderBatch();
         builder.analyzeBytecode(false);
         builder.useCache(true);
         builder.setConsoleVisible(true);
         
-        List<JavaProject> targetProjects = builder.build(name, target);
-        for (JavaProject jproject : targetProjects) {
-            System.out.println("PROJECT: " + jproject.getName());
-            
-            MethodFinder methodFinder = new MethodFinder();
-            methodFinder.run(jproject, loc, CALLING_LIMIT);
-            List<JavaMethod> allMethods = methodFinder.getAllMethods();
-            List<MethodSeq> targetMethodSeqList = methodFinder.getTargetMethodSeqList();
-            
-            List<CalleeMethod> targets = new ArrayList<>();
-            FailedMethods failedMethods = new FailedMethods(); 
-
-            for (MethodSeq seq : targetMethodSeqList) {
-                CalleeMethod calleeMethod = new CalleeMethod(seq);
-                boolean result = check(jproject, calleeMethod, failedMethods);
-                if (result) {
-                    targets.add(calleeMethod);
-                }
-            }
-            
-            System.out.println();
-            System.out.println("# Found Method Call Sequences = " + allMethods.size());
-            System.out.println("# Found Method Pair Of Caller And Callee = " + targetMethodSeqList.size());
-            System.out.println("# Valid Method Pairs Of Caller And Callee = " + targets.size());
-            System.out.println();
-
-            Path outputFile = Paths.get(target, "../../" + jproject.getName() + "_methods.txt");
+        // モデルの構築は全プロジェクトまとめて行うので，その時間は各プロジェクトの計測値に共通で加える
+        Metrics buildMetrics = new Metrics();
+        List<JavaProject> targetProjects;
+        try (Metrics.Timer timer = buildMetrics.start(Metrics.Phase.MODEL_BUILD)) {
+            targetProjects = builder.build(name, target);
+        }
         
+        if (options.isServer()) {
+            SearchServer server = new SearchServer(this, targetProjects, target, options);
             try {
-                // ファイルを作成（存在しない場合のみ）
-                if (!Files.exists(outputFile)) {
-                    Files.createFile(outputFile);
-                }
-
-                // File オブジェクトを Path オブジェクトから取得
-                File file = outputFile.toFile();
-                FileWriter filewriter = new FileWriter(file);
-                
-                List<String> targetMethods = new ArrayList<String>();
-                for (CalleeMethod method : targets) {
-                    if (!targetMethods.contains(method.getTargetMethod().getQualifiedName().fqn())) {
-                        targetMethods.add(method.getTargetMethod().getQualifiedName().fqn());
-                    }
-                }
-                
-                filewriter.write("# Number Of Methods = " + allMethods.size() + "\n");
-                filewriter.write("# Number Of Classes = " + methodFinder.getClassNum(jproject) + "\n");
-                filewriter.write("# Line Of Code = " + methodFinder.getAllMethodLoc() + "\n");
-                filewriter.write("# Target Methods = " + targetMethods.size() + "\n");
-                filewriter.write("# All Method Pairs = " + targetMethodSeqList.size() + "\n");
-                filewriter.write("# Valid Method Pairs = " + targets.size() + "\n");
-                filewriter.write("# Not found target class = " + failedMethods.getNotFoundClasses().size() + "\n");
-                filewriter.write("# Not found target method = " + failedMethods.getNotFoundMethods().size() + "\n");
-                filewriter.write("# Not found input variable = " + failedMethods.getNotFoundInputVariables().size() + "\n");
-                filewriter.write("# Not found output variable = " + failedMethods.getNotFoundOutputVariables().size() + "\n");
-                filewriter.write("# Input variable is not Object = " + failedMethods.getIsNotObjectInput().size() + "\n");
-                filewriter.write("# Output variable is not Primitive = " + failedMethods.getIsNotPrimitiveOutput().size() + "\n\n");
-                // ファイルにメソッド情報を書き込む
-                for (CalleeMethod method : targets) {
-                    filewriter.write("[\ncallerMethod: " + method.getCallerMethod().getQualifiedName().fqn() + "\n");
-                    filewriter.write("calleeMethod: " + method.getTargetMethod().getQualifiedName().fqn() + "\n]\n");
+                if (options.getServerPort() > 0) {
+                    server.listen(options.getServerPort());
+                } else {
+                    server.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), System.out);
                 }
-
-                filewriter.close();
             } catch (IOException e) {
-                System.out.println(e);
+                System.err.println("**** Server stopped: " + e);
             }
+            builder.unbuild();
+            return;
         }
         
-        builder.unbuild();
-    }
-    
-    private boolean check(JavaProject jproject, CalleeMethod testTarget, FailedMethods failedMethods) {
-        String targetClassName = testTarget.getTargetMethod().getDeclaringClass().getQualifiedName().fqn();
-        JavaClass targetClass = jproject.getClass(targetClassName);
-        if (targetClass == null) {
-            System.err.println("**** Not found target class: " + targetClassName);
-            failedMethods.addNotFoundClasse(targetClassName);
-            return false;
+        if (options.isShardWorker()) {
+            runShard(targetProjects, options, buildMetrics);
+            builder.unbuild();
+            return;
         }
         
-        String targetMethodSig = testTarget.getTargetMethod().getSignature();
-        JavaMethod targetMethod = targetClass.getMethod(targetMethodSig);
-        if (targetMethod == null) {
-            // System.err.println("**** Not found target method: " + targetMethodSig + " in " + targetClassName);
-            failedMethods.addNotFoundMethod(targetMethodSig);
-            return false;
-        }
-        
-        if (testTarget.getInVariables().isEmpty()) {
-            // System.err.println("**** Not found input variable: " + targetMethodSig + " in " + targetClassName);
-            failedMethods.addNotFoundInputVariable(targetClassName);
-            return false;
+        openCheckPool(options);
+        try {
+            if (options.isParallelProjects()) {
+                runInParallel(targetProjects, target, options, buildMetrics);
+            } else {
+                for (JavaProject jproject : targetProjects) {
+                    analyze(jproject, target, options, buildMetrics, System.out);
+                }
+            }
+        } finally {
+            closeCheckPool();
         }
         
-        if (testTarget.getOutVariables().isEmpty()) {
-            // System.err.println("**** Not found output variable: " + targetMethodSig + " in " + targetClassName);
-            failedMethods.addNotFoundOutputVariable(targetClassName);
-            return false;
+        builder.unbuild();
+    }
+    
+    private void runShard(List<JavaProject> targetProjects, SearchOptions options, Metrics buildMetrics) {
+        ShardWorker worker = new ShardWorker(checker, options);
+        try {
+            worker.writeProjectList(targetProjects);
+            for (JavaProject jproject : targetProjects) {
+                worker.analyze(jproject, buildMetrics);
+            }
+        } catch (IOException e) {
+            // 取りまとめ側が失敗を検知できるよう，異常終了させる
+            throw new UncheckedIOException(e);
         }
-
-        if (!isObjectInput(testTarget)) {
-            // System.err.println("**** Input variable is not Object: " + targetMethodSig + " in " + targetClassName);
-            failedMethods.addIsNotObjectInput(targetMethodSig);
-            return false;
+    }
+    
+    void openCheckPool(SearchOptions options) {
+        if (options.isParallelCheck()) {
+            checkPool = new ForkJoinPool(options.getCheckThreads());
         }
-
-        if (!isPrimitiveOutput(testTarget)) {
-            // System.err.println("**** Output variable is not Primitive: " + targetMethodSig + " in " + targetClassName);
-            failedMethods.addIsNotPrimitiveOutput(targetMethodSig);
-            return false;
+    }
+    
+    void closeCheckPool() {
+        if (checkPool != null) {
+            checkPool.shutdown();
+            checkPool = null;
         }
-
-        return true;
     }
-
-    private boolean isObjectInput(CalleeMethod testTarget) {
-        Pattern pattern = Pattern.compile("\\((.*?)\\)");
-
-        boolean flag = true;
-
-        for (ProjectVariable var : testTarget.getInVariables()) {
+    
+    private void runInParallel(List<JavaProject> targetProjects, String target, SearchOptions options,
+            Metrics buildMetrics) {
+        ExecutorService executor = Executors.newFixedThreadPool(options.getProjectThreads());
+        try {
+            List<Future<String>> reports = new ArrayList<>();
+            for (JavaProject jproject : targetProjects) {
+                reports.add(executor.submit(() -> {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    PrintStream out = new PrintStream(buffer, true);
+                    analyze(jproject, target, options, buildMetrics, out);
+                    return buffer.toString();
+                }));
+            }
             
-            Matcher matcher = pattern.matcher(var.toString());
-            if (matcher.find()){
-                String argumentTypes = matcher.group(1);
-                String[] types = argumentTypes.split("\\s+");
-                
-                for (String type : types) {
-                    for (String primitiveType : primitiveTypes) {
-                        if (primitiveType.contains(type)) {
-                            flag = false;
-                        }
-                    } 
-                    if (flag == true) {
-                        return true;
-                    }else {
-                        flag = true;
-                    }
+            // 出力がプロジェクト順に並ぶよう、結果は投入順に表示する
+            for (int i = 0; i < reports.size(); i++) {
+                try {
+                    System.out.print(reports.get(i).get());
+                } catch (ExecutionException e) {
+                    System.err.println("**** Failed to analyze project: " + targetProjects.get(i).getName());
+                    e.getCause().printStackTrace();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
                 }
             }
+        } finally {
+            executor.shutdownNow();
         }
-        return false;
     }
     
-    private boolean isPrimitiveOutput(CalleeMethod testTarget) {
-        Pattern pattern = Pattern.compile("@(\\S+)");
-
-        for (ProjectVariable var : testTarget.getOutVariables()) {
-            Matcher matcher = pattern.matcher(var.toString());
-            if (matcher.find()){
-                String argumentType = matcher.group(1);
-                for (String primitiveType : primitiveTypes) {
-                    if (argumentType.contains(primitiveType)) {
-                        return true;
+    private void analyze(JavaProject jproject, String target, SearchOptions options, Metrics buildMetrics,
+            PrintStream out) {
+        Metrics metrics = new Metrics();
+        metrics.addAll(buildMetrics);
+        analyze(jproject, null, new AnalysisCache(jproject, metrics), target, options, out);
+    }
+    
+    // 常駐モードでは構築済みの呼び出しグラフと解析結果のキャッシュを問い合わせ間で使い回す
+    @SuppressWarnings("try")
+    void analyze(JavaProject jproject, CallGraph callGraph, AnalysisCache cache, String target, SearchOptions options,
+            PrintStream out) {
+        out.println("PROJECT: " + jproject.getName());
+        
+        Metrics metrics = cache.getMetrics();
+        MethodFinder methodFinder = new MethodFinder();
+        methodFinder.setMetrics(metrics);
+        methodFinder.setCallGraph(callGraph);
+        methodFinder.setDeduplicatePairs(!options.isKeepDuplicatePairs());
+        methodFinder.setFilter(options.createMethodFilter());
+        methodFinder.setGroupByClass(options.isLowMemory());
+        if (options.getSnapshotDir() != null) {
+            methodFinder.setSnapshot(new CallGraphSnapshot(Paths.get(options.getSnapshotDir())));
+        }
+        Iterator<MethodSeq> seqs = methodFinder.stream(jproject, options.getMinLoc(), options.getCallingLimit()).iterator();
+        List<JavaMethod> allMethods = methodFinder.getAllMethods();
+        
+        PairEvaluator evaluator = new PairEvaluator(cache, checker);
+        FailedMethods failedMethods = new FailedMethods();
+        int pairNum = 0;
+        
+        Path outputDir = Paths.get(target, "../..");
+        try (ResultWriter writer = ResultWriter.create(outputDir, jproject.getName(), options.getOutputFormat());
+             ProgressReporter progress = new ProgressReporter(jproject.getName(), metrics, methodFinder, System.err,
+                     options.getProgressInterval());
+             CheckpointJournal journal = options.isCheckpoint() ? CheckpointJournal.open(
+                     outputDir.resolve(jproject.getName() + "_checkpoint.journal"), jproject, options.getInputKey()) : null) {
+            evaluator.setJournal(journal);
+            ResultStore store = null;
+            if (options.isIncremental()) {
+                store = ResultStore.open(outputDir, jproject);
+                evaluator.setResultStore(store);
+            }
+            
+            if (options.isLowMemory()) {
+                /*
+                 * 系列は呼び出し先のクラスごとに連続して列挙されるので（setGroupByClass），
+                 * 一定数ずつ検査しながら，クラスが切り替わったら前のクラスの解析結果を破棄する．
+                 * jxplatform にはクラス単位で CFG を破棄する公開 API がないので，jxplatform が保持する CFG は残る．
+                 * 出力は呼び出し先のクラスの初出順にまとまり，通常の実行とは順序が異なる．
+                 */
+                List<MethodSeq> batch = new ArrayList<>(CHECK_BATCH_SIZE);
+                String className = null;
+                while (seqs.hasNext()) {
+                    MethodSeq seq = seqs.next();
+                    pairNum++;
+                    if (className != null && !className.equals(seq.getClassName())) {
+                        check(evaluator, batch, writer, failedMethods);
+                        batch = new ArrayList<>(CHECK_BATCH_SIZE);
+                        cache.evictClass(className);
+                    }
+                    className = seq.getClassName();
+                    batch.add(seq);
+                    if (batch.size() == CHECK_BATCH_SIZE) {
+                        check(evaluator, batch, writer, failedMethods);
+                        batch = new ArrayList<>(CHECK_BATCH_SIZE);
+                    }
+                }
+                if (className != null) {
+                    check(evaluator, batch, writer, failedMethods);
+                    cache.evictClass(className);
+                }
+            } else if (options.isPipeline()) {
+                CheckPipeline pipeline = new CheckPipeline(evaluator, metrics, options.getPipelineWorkers(),
+                        options.getQueueSize());
+                progress.setPipeline(pipeline);
+                pairNum += pipeline.run(seqs, writer, failedMethods);
+            } else if (checkPool != null) {
+                // 系列は一定数ずつまとめて並列に検査し，全系列を同時に保持しない
+                List<MethodSeq> batch = new ArrayList<>(CHECK_BATCH_SIZE);
+                while (seqs.hasNext()) {
+                    batch.add(seqs.next());
+                    pairNum++;
+                    if (batch.size() == CHECK_BATCH_SIZE || !seqs.hasNext()) {
+                        check(evaluator, batch, writer, failedMethods);
+                        batch = new ArrayList<>(CHECK_BATCH_SIZE);
                     }
                 }
+            } else {
+                while (seqs.hasNext()) {
+                    PairOutcome outcome = evaluator.evaluate(seqs.next());
+                    pairNum++;
+                    evaluator.record(outcome, writer, failedMethods);
+                }
+            }
+            
+            if (store != null) {
+                store.save();
+                out.println("# Reused Method Pairs = " + store.getReusedNum() + ", Recomputed = " + store.getRecomputedNum());
+            }
+            if (journal != null) {
+                out.println("# Resumed Method Pairs = " + journal.getResumedNum());
+            }
+            report(out, allMethods.size(), pairNum, methodFinder.getRawPairNum(), writer, cache.getHits(),
+                    cache.getMisses(), failedMethods);
+            
+            Map<String, Object> summary = summarize(allMethods.size(), methodFinder.getClassNum(jproject),
+                    methodFinder.getAllMethodLoc(), writer, methodFinder.getRawPairNum(), pairNum, failedMethods,
+                    cache.getHits(), cache.getMisses());
+            metrics.putCounters(summary);
+            try (Metrics.Timer timer = metrics.start(Metrics.Phase.WRITE)) {
+                writer.finish(summary);
+            }
+            metrics.write(outputDir.resolve(jproject.getName() + "_metrics.json"), jproject.getName(), summary);
+            if (journal != null) {
+                journal.complete();
+            }
+        } catch (IOException e) {
+            out.println(e);
+        }
+    }
+    
+    static void report(PrintStream out, int methodNum, long pairNum, long rawPairNum, ResultWriter writer, long hits,
+            long misses, FailedMethods failedMethods) {
+        out.println();
+        out.println("# Found Method Call Sequences = " + methodNum);
+        out.println("# Found Method Pair Of Caller And Callee = " + pairNum +
+                " (before deduplication = " + rawPairNum + ")");
+        out.println("# Valid Method Pairs Of Caller And Callee = " + writer.getPairNum());
+        out.println("# Callee Cache Hits = " + hits + ", Misses = " + misses);
+        out.println("# Rejected At Lookup = " + failedMethods.getStageNum(FailedMethods.Stage.LOOKUP) +
+                ", Signature = " + failedMethods.getStageNum(FailedMethods.Stage.SIGNATURE) +
+                ", Dataflow = " + failedMethods.getStageNum(FailedMethods.Stage.DATAFLOW));
+        out.println();
+    }
+    
+    static Map<String, Object> summarize(int methodNum, int classNum, int loc, ResultWriter writer, long rawPairNum,
+            long pairNum, FailedMethods failedMethods, long hits, long misses) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("Number Of Methods", methodNum);
+        summary.put("Number Of Classes", classNum);
+        summary.put("Line Of Code", loc);
+        summary.put("Target Methods", writer.getTargetMethodNum());
+        summary.put("Raw Method Pairs", rawPairNum);
+        summary.put("All Method Pairs", pairNum);
+        summary.put("Valid Method Pairs", writer.getPairNum());
+        summary.put("Not found target class", failedMethods.getNotFoundClasses().size());
+        summary.put("Not found target method", failedMethods.getNotFoundMethods().size());
+        summary.put("Not found input variable", failedMethods.getNotFoundInputVariables().size());
+        summary.put("Not found output variable", failedMethods.getNotFoundOutputVariables().size());
+        summary.put("Input variable is not Object", failedMethods.getIsNotObjectInput().size());
+        summary.put("Output variable is not Primitive", failedMethods.getIsNotPrimitiveOutput().size());
+        summary.put("Callee cache hits", hits);
+        summary.put("Callee cache misses", misses);
+        summary.put("Rejected at lookup", failedMethods.getStageNum(FailedMethods.Stage.LOOKUP));
+        summary.put("Rejected at signature", failedMethods.getStageNum(FailedMethods.Stage.SIGNATURE));
+        summary.put("Rejected at dataflow", failedMethods.getStageNum(FailedMethods.Stage.DATAFLOW));
+        return summary;
+    }
+    
+    private void check(PairEvaluator evaluator, List<MethodSeq> seqList, ResultWriter writer,
+            FailedMethods failedMethods) throws IOException {
+        if (checkPool != null) {
+            for (PairOutcome outcome : checkPool.invoke(new CheckTask(evaluator, seqList))) {
+                evaluator.record(outcome, writer, failedMethods);
+            }
+        } else {
+            for (MethodSeq seq : seqList) {
+                evaluator.record(evaluator.evaluate(seq), writer, failedMethods);
             }
         }
-        return false;
     }
     
     public static void main(String[] args) {
         SearchResultsChecker checker = new SearchResultsChecker();
-        checker.run(args[0], args[1]);
+        checker.run(args[0], args[1], SearchOptions.parse(args, 2));
     }
 }
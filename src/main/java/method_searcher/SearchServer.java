@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jtool.srcmodel.JavaProject;
+
+/*
+ * モデルを一度だけ構築して常駐し，1行1件の問い合わせに答える．
+ * 問い合わせはコマンドラインのオプションのうち検索条件・出力形式・検査の並列数に関わるもの
+ * （例: -loc 5 -chain 2 -exclude .*Util.*）で，応答は通常の実行と同じ出力の後に END の行を返す．
+ * それ以外のオプションは起動時にだけ意味を持つので，問い合わせに含まれていればエラーを返す．
+ * quit で接続を閉じ，shutdown で終了する．
+ */
+public class SearchServer {
+    
+    private final static String END = "END";
+    
+    // 問い合わせで指定できるオプションと，値を取るかどうか
+    private final static Map<String, Boolean> QUERY_OPTIONS = new HashMap<>();
+    static {
+        QUERY_OPTIONS.put("-loc", true);
+        QUERY_OPTIONS.put("-chain", true);
+        QUERY_OPTIONS.put("-publicOnly", false);
+        QUERY_OPTIONS.put("-include", true);
+        QUERY_OPTIONS.put("-exclude", true);
+        QUERY_OPTIONS.put("-keepDuplicatePairs", false);
+        QUERY_OPTIONS.put("-format", true);
+        QUERY_OPTIONS.put("-checkThreads", true);
+    }
+    
+    private final SearchResultsChecker checker;
+    private final String target;
+    private final List<JavaProject> projects;
+    private final List<CallGraph> callGraphs = new ArrayList<>();
+    private final List<AnalysisCache> caches = new ArrayList<>();
+    
+    public SearchServer(SearchResultsChecker checker, List<JavaProject> projects, String target, SearchOptions options) {
+        this.checker = checker;
+        this.target = target;
+        this.projects = projects;
+        
+        CallGraphSnapshot snapshot = null;
+        if (options.getSnapshotDir() != null) {
+            snapshot = new CallGraphSnapshot(Paths.get(options.getSnapshotDir()));
+        }
+        for (JavaProject jproject : projects) {
+            callGraphs.add(snapshot != null ? snapshot.loadOrBuild(jproject) : CallGraph.build(jproject));
+            caches.add(new AnalysisCache(jproject));
+        }
+    }
+    
+    public void listen(int port) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            System.out.println("Listening on " + serverSocket.getLocalSocketAddress());
+            while (true) {
+                try (Socket socket = serverSocket.accept()) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8.name());
+                    if (serve(in, out)) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    System.err.println("**** Connection closed: " + e);
+                }
+            }
+        }
+    }
+    
+    // shutdown を受け取ったら true を返す（入力が尽きた場合は接続を閉じるだけ）
+    public boolean serve(BufferedReader in, PrintStream out) throws IOException {
+        out.println("READY " + projects.size());
+        String line;
+        while ((line = in.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.equals("quit")) {
+                return false;
+            }
+            if (line.equals("shutdown")) {
+                return true;
+            }
+            
+            try {
+                query(parseQuery(line), out);
+            } catch (IllegalArgumentException e) {
+                out.println("ERROR " + e.getMessage());
+            } catch (RuntimeException e) {
+                // 一つの問い合わせの失敗で常駐を終えないよう，エラーを返して次の問い合わせを待つ
+                e.printStackTrace();
+                out.println("ERROR " + e);
+            }
+            out.println(END);
+            out.flush();
+        }
+        return false;
+    }
+    
+    static SearchOptions parseQuery(String line) {
+        String[] args = line.split("\\s+");
+        for (int i = 0; i < args.length; i++) {
+            Boolean hasValue = QUERY_OPTIONS.get(args[i]);
+            if (hasValue == null) {
+                throw new IllegalArgumentException("Unsupported query option: " + args[i]);
+            }
+            if (hasValue) {
+                i++;
+            }
+        }
+        return SearchOptions.parse(args, 0);
+    }
+    
+    private void query(SearchOptions options, PrintStream out) {
+        checker.openCheckPool(options);
+        try {
+            for (int i = 0; i < projects.size(); i++) {
+                AnalysisCache cache = caches.get(i);
+                cache.setMetrics(new Metrics());
+                checker.analyze(projects.get(i), callGraphs.get(i), cache, target, options, out);
+            }
+        } finally {
+            checker.closeCheckPool();
+        }
+    }
+}
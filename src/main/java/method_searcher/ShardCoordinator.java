@@ -0,0 +1,220 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/*
+ * 分割実行の取りまとめ側．
+ * 自身ではモデルを構築せず，分割数だけワーカーの JVM を（同時には -maxWorkers 個まで）起動し，
+ * 各ワーカーの中間ファイルを通し番号順に結合して単独実行と同じ出力を作る．
+ * モデルの構築は各ワーカーで行われるので，分割で減るのは CFG と解析結果のキャッシュの分である．
+ */
+class ShardCoordinator {
+
+    private final SearchOptions options;
+
+    ShardCoordinator(SearchOptions options) {
+        this.options = options;
+    }
+
+    void run(String name, String target, PrintStream out) throws IOException {
+        Path outputDir = Paths.get(target, "../..");
+        Path partialDir = outputDir.resolve(name + "_shards");
+        Files.createDirectories(partialDir);
+
+        runWorkers(name, target, partialDir);
+
+        for (String projectName : Files.readAllLines(ShardWorker.getProjectListFile(partialDir), StandardCharsets.UTF_8)) {
+            if (!projectName.isEmpty()) {
+                merge(projectName, outputDir, partialDir, out);
+            }
+        }
+    }
+
+    /*
+     * 同時に動かすワーカーは -maxWorkers 個までにし，終わったものから次の分割を起動する．
+     * 一つでも失敗すると結果が欠けるので，残りのワーカーを止めて結合せずに失敗させる．
+     */
+    private void runWorkers(String name, String target, Path partialDir) throws IOException {
+        List<Process> workers = new ArrayList<>();
+        int finished = 0;
+        try {
+            for (int i = 0; i < options.getShards(); i++) {
+                if (i - finished >= options.getMaxWorkers()) {
+                    waitFor(workers.get(finished), finished, partialDir);
+                    finished++;
+                }
+                ProcessBuilder builder = new ProcessBuilder(createCommand(name, target, partialDir, i));
+                builder.redirectErrorStream(true);
+                builder.redirectOutput(partialDir.resolve(i + ".log").toFile());
+                workers.add(builder.start());
+            }
+            for (; finished < workers.size(); finished++) {
+                waitFor(workers.get(finished), finished, partialDir);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for shard workers");
+        } finally {
+            for (Process worker : workers) {
+                worker.destroy();
+            }
+        }
+    }
+
+    private void waitFor(Process worker, int shardIndex, Path partialDir) throws IOException, InterruptedException {
+        int exitCode = worker.waitFor();
+        if (exitCode != 0) {
+            throw new IOException("Shard " + shardIndex + " failed (exit code " + exitCode + "): " +
+                    partialDir.resolve(shardIndex + ".log"));
+        }
+    }
+
+    private List<String> createCommand(String name, String target, Path partialDir, int shardIndex) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (options.getWorkerHeap() != null) {
+            command.add("-Xmx" + options.getWorkerHeap());
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SearchResultsChecker.class.getName());
+        command.add(name);
+        command.add(target);
+        command.addAll(options.getWorkerArgs());
+        command.add("-shard");
+        command.add(shardIndex + "/" + options.getShards());
+        command.add("-partial");
+        command.add(partialDir.toString());
+        return command;
+    }
+
+    private void merge(String projectName, Path outputDir, Path partialDir, PrintStream out) throws IOException {
+        out.println("PROJECT: " + projectName);
+
+        List<Partial> partials = new ArrayList<>();
+        try {
+            for (int i = 0; i < options.getShards(); i++) {
+                partials.add(new Partial(ShardWorker.getPartialFile(partialDir, projectName, i)));
+            }
+
+            FailedMethods failedMethods = new FailedMethods();
+            try (ResultWriter writer = ResultWriter.create(outputDir, projectName, options.getOutputFormat())) {
+                // 各中間ファイルは通し番号順に並んでいるので，先頭同士を比べて小さい方から取り出す
+                PriorityQueue<Partial> queue = new PriorityQueue<>((p1, p2) -> Long.compare(p1.index, p2.index));
+                for (Partial partial : partials) {
+                    if (partial.next()) {
+                        queue.add(partial);
+                    }
+                }
+                while (!queue.isEmpty()) {
+                    Partial partial = queue.poll();
+                    PairOutcome outcome = partial.outcome;
+                    if (outcome.isValid()) {
+                        writer.write(outcome.getCallerName(), outcome.getCalleeName());
+                    } else {
+                        failedMethods.add(outcome.getFailure());
+                    }
+                    if (partial.next()) {
+                        queue.add(partial);
+                    }
+                }
+
+                long hits = 0;
+                long misses = 0;
+                for (Partial partial : partials) {
+                    hits += partial.getStat("#hits");
+                    misses += partial.getStat("#misses");
+                }
+                Partial first = partials.get(0);
+                int methodNum = (int)first.getStat("#methods");
+                long pairNum = first.getStat("#pairs");
+                long rawPairNum = first.getStat("#rawPairs");
+                SearchResultsChecker.report(out, methodNum, pairNum, rawPairNum, writer, hits, misses, failedMethods);
+
+                Map<String, Object> summary = SearchResultsChecker.summarize(methodNum, (int)first.getStat("#classes"),
+                        (int)first.getStat("#loc"), writer, rawPairNum, pairNum, failedMethods, hits, misses);
+                // 計測値は全ワーカーの合計（モデルの構築と系列の列挙は各ワーカーで行うので，その分も足し合わされる）
+                Metrics metrics = new Metrics();
+                for (Partial partial : partials) {
+                    metrics.addAll(partial.metrics);
+                }
+                metrics.putCounters(summary);
+                writer.finish(summary);
+                metrics.write(outputDir.resolve(projectName + "_metrics.json"), projectName, summary);
+            }
+        } finally {
+            for (Partial partial : partials) {
+                partial.close();
+            }
+        }
+    }
+
+    private static class Partial {
+        private final Path file;
+        private final BufferedReader reader;
+        private final Map<String, Long> stats = new HashMap<>();
+        private final Metrics metrics = new Metrics();
+
+        long index;
+        PairOutcome outcome;
+
+        Partial(Path file) throws IOException {
+            this.file = file;
+            this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+
+        boolean next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.equals(ShardWorker.END)) {
+                    stats.put(ShardWorker.END, 1L);
+                } else if (line.startsWith(Metrics.PHASE_LINE + "\t") || line.startsWith(Metrics.COUNTER_LINE + "\t")) {
+                    metrics.addLine(line.split("\t"));
+                } else if (line.startsWith("#")) {
+                    String[] cols = line.split("\t");
+                    stats.put(cols[0], Long.parseLong(cols[1]));
+                } else {
+                    String[] cols = line.split("\t", -1);
+                    index = Long.parseLong(cols[0]);
+                    outcome = ShardWorker.parse(cols);
+                    return true;
+                }
+            }
+            if (!stats.containsKey(ShardWorker.END)) {
+                throw new IOException("Incomplete shard result: " + file);
+            }
+            return false;
+        }
+
+        long getStat(String key) throws IOException {
+            // 結果を読み切る前に集計値を参照しないよう，末尾まで読んでいることを確かめる
+            while (!stats.containsKey(ShardWorker.END)) {
+                if (next()) {
+                    throw new IOException("Unmerged shard result: " + file);
+                }
+            }
+            return stats.getOrDefault(key, 0L);
+        }
+
+        void close() throws IOException {
+            reader.close();
+        }
+    }
+}
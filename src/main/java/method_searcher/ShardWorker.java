@@ -0,0 +1,169 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jtool.srcmodel.JavaProject;
+
+/*
+ * 分割実行のワーカー側．
+ * 系列の列挙は全体に対して行い（列挙順の通し番号を単独実行と揃えるため），
+ * 呼び出し先のクラス名のハッシュ値が担当分に当たる系列だけを検査する．
+ * CFG と解析結果のキャッシュは担当分のクラスについてしか作られない．
+ * 結果は通し番号付きの中間ファイルに書き出し，結合は ShardCoordinator が行う．
+ */
+class ShardWorker {
+
+    static final String VALID = "VALID";
+    static final String END = "#end";
+
+    private final static int CHECK_BATCH_SIZE = 1024;
+
+    private final CalleeChecker checker;
+    private final SearchOptions options;
+    private final Path partialDir;
+
+    ShardWorker(CalleeChecker checker, SearchOptions options) {
+        this.checker = checker;
+        this.options = options;
+        this.partialDir = Paths.get(options.getPartialDir());
+    }
+
+    static boolean inShard(MethodSeq seq, int shardIndex, int shardCount) {
+        return Math.floorMod(seq.getClassName().hashCode(), shardCount) == shardIndex;
+    }
+
+    static Path getPartialFile(Path dir, String projectName, int shardIndex) {
+        return dir.resolve(projectName + "." + shardIndex + ".part");
+    }
+
+    static Path getProjectListFile(Path dir) {
+        return dir.resolve("projects.txt");
+    }
+
+    // 結合時にプロジェクトの順序を揃えるため，先頭のワーカーだけがプロジェクト名を書き出す
+    void writeProjectList(List<JavaProject> projects) throws IOException {
+        if (options.getShardIndex() != 0) {
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        for (JavaProject jproject : projects) {
+            names.add(jproject.getName());
+        }
+        Files.write(getProjectListFile(partialDir), names, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("try")
+    void analyze(JavaProject jproject, Metrics buildMetrics) throws IOException {
+        Metrics metrics = new Metrics();
+        metrics.addAll(buildMetrics);
+        AnalysisCache cache = new AnalysisCache(jproject, metrics);
+
+        MethodFinder methodFinder = new MethodFinder();
+        methodFinder.setMetrics(metrics);
+        methodFinder.setDeduplicatePairs(!options.isKeepDuplicatePairs());
+        methodFinder.setFilter(options.createMethodFilter());
+        if (options.getSnapshotDir() != null) {
+            methodFinder.setSnapshot(new CallGraphSnapshot(Paths.get(options.getSnapshotDir())));
+        }
+        Iterator<MethodSeq> seqs = methodFinder.stream(jproject, options.getMinLoc(), options.getCallingLimit()).iterator();
+        PairEvaluator evaluator = new PairEvaluator(cache, checker);
+
+        String name = jproject.getName() + " [" + options.getShardIndex() + "/" + options.getShardCount() + "]";
+        Path file = getPartialFile(partialDir, jproject.getName(), options.getShardIndex());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Path journalFile = file.resolveSibling(file.getFileName() + ".journal");
+        ForkJoinPool checkPool = options.isParallelCheck() ? new ForkJoinPool(options.getCheckThreads()) : null;
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8);
+             ProgressReporter progress = new ProgressReporter(name, metrics, methodFinder, System.err,
+                     options.getProgressInterval());
+             CheckpointJournal journal = options.isCheckpoint() ? CheckpointJournal.open(journalFile, jproject,
+                     options.getInputKey() + ";shard=" + options.getShardIndex() + "/" + options.getShardCount()) : null) {
+            evaluator.setJournal(journal);
+            List<MethodSeq> batch = new ArrayList<>(CHECK_BATCH_SIZE);
+            while (seqs.hasNext()) {
+                MethodSeq seq = seqs.next();
+                if (inShard(seq, options.getShardIndex(), options.getShardCount())) {
+                    batch.add(seq);
+                }
+                if (batch.size() == CHECK_BATCH_SIZE || (!seqs.hasNext() && !batch.isEmpty())) {
+                    check(evaluator, checkPool, batch, writer);
+                    batch = new ArrayList<>(CHECK_BATCH_SIZE);
+                }
+            }
+
+            // 担当分によらない値は各ワーカーで同じになる
+            writer.write("#methods\t" + methodFinder.getAllMethods().size() + "\n");
+            writer.write("#classes\t" + methodFinder.getClassNum(jproject) + "\n");
+            writer.write("#loc\t" + methodFinder.getAllMethodLoc() + "\n");
+            writer.write("#rawPairs\t" + methodFinder.getRawPairNum() + "\n");
+            writer.write("#pairs\t" + methodFinder.getPairNum() + "\n");
+            writer.write("#hits\t" + cache.getHits() + "\n");
+            writer.write("#misses\t" + cache.getMisses() + "\n");
+            for (String line : metrics.toLines()) {
+                writer.write(line + "\n");
+            }
+            writer.write(END + "\n");
+        } finally {
+            if (checkPool != null) {
+                checkPool.shutdown();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // 中間ファイルが揃ったので途中経過は不要になる
+        Files.deleteIfExists(journalFile);
+
+        metrics.write(partialDir.resolve(jproject.getName() + "." + options.getShardIndex() + "_metrics.json"),
+                name, Collections.emptyMap());
+    }
+
+    private void check(PairEvaluator evaluator, ForkJoinPool checkPool, List<MethodSeq> seqList,
+            BufferedWriter writer) throws IOException {
+        List<PairOutcome> outcomes;
+        if (checkPool != null) {
+            outcomes = checkPool.invoke(new CheckTask(evaluator, seqList));
+        } else {
+            outcomes = new ArrayList<>(seqList.size());
+            for (MethodSeq seq : seqList) {
+                outcomes.add(evaluator.evaluate(seq));
+            }
+        }
+        for (int i = 0; i < outcomes.size(); i++) {
+            writer.write(format(seqList.get(i).getIndex(), outcomes.get(i)));
+        }
+    }
+
+    // 通し番号 \t VALID \t 呼び出し元 \t 呼び出し先，または 通し番号 \t 理由 \t 段階 \t 名前
+    static String format(long index, PairOutcome outcome) {
+        if (outcome.isValid()) {
+            return index + "\t" + VALID + "\t" + outcome.getCallerName() + "\t" + outcome.getCalleeName() + "\n";
+        }
+        FailedMethods.Failure failure = outcome.getFailure();
+        return index + "\t" + failure.getReason().name() + "\t" + failure.getStage().name() + "\t" +
+                failure.getName() + "\n";
+    }
+
+    static PairOutcome parse(String[] cols) {
+        if (cols[1].equals(VALID)) {
+            return new PairOutcome(cols[2], cols[3], null);
+        }
+        FailedMethods.Failure failure = new FailedMethods.Failure(FailedMethods.Reason.valueOf(cols[1]), cols[3],
+                FailedMethods.Stage.valueOf(cols[2]));
+        return new PairOutcome(null, null, failure);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TypeClassifier {
+    
+    private final static String[] primitiveTypes = {
+        "java.lang.String",
+        "string",
+        "char",
+        "java.lang.Byte",
+        "byte[]",
+        "byte",
+        "java.lang.Short",
+        "short",
+        "java.lang.Number",
+        "java.lang.Integer",
+        "integer",
+        "int",
+        "java.lang.Long",
+        "long",
+        "java.lang.Float",
+        "float",
+        "java.lang.Double",
+        "double",
+        "java.lang.Boolean",
+        "boolean",
+    };
+    
+    private final static String[] simpleTypes = {
+        "java.lang.String",
+        "java.lang.Byte",
+        "java.lang.Short",
+        "java.lang.Integer",
+        "java.lang.Long",
+        "java.lang.Float",
+        "java.lang.Double"
+    };
+    
+    private final static int SIMPLE = 1;
+    private final static int CONTAINS_PRIMITIVE = 2;
+    private final static int PART_OF_PRIMITIVE = 4;
+    
+    private final static Map<String, TypeInfo> types = new ConcurrentHashMap<>();
+    private final static Map<String, List<TypeInfo>> signatures = new ConcurrentHashMap<>();
+    
+    private TypeClassifier() {
+    }
+    
+    public static TypeInfo classify(String type) {
+        return types.computeIfAbsent(type, TypeClassifier::createTypeInfo);
+    }
+    
+    private static TypeInfo createTypeInfo(String type) {
+        int flags = 0;
+        for (String simpleType : simpleTypes) {
+            if (simpleType.equals(type)) {
+                flags |= SIMPLE;
+            }
+        }
+        // これまでの判定と同じく，型名の部分文字列として比較する
+        for (String primitiveType : primitiveTypes) {
+            if (type.contains(primitiveType)) {
+                flags |= CONTAINS_PRIMITIVE;
+            }
+            if (primitiveType.contains(type)) {
+                flags |= PART_OF_PRIMITIVE;
+            }
+        }
+        return new TypeInfo(type, flags);
+    }
+    
+    /*
+     * 名前中の最初の括弧内（メソッドの引数型の並び）を空白で区切った型を返す．
+     * 変数ごとに同じメソッドの引数型を分類し直さないよう，結果は引数型の並びごとに保持する．
+     */
+    public static List<TypeInfo> classifySignature(String name) {
+        int begin = name.indexOf('(');
+        int end = begin < 0 ? -1 : name.indexOf(')', begin + 1);
+        if (end < 0) {
+            return Collections.emptyList();
+        }
+        return signatures.computeIfAbsent(name.substring(begin + 1, end), TypeClassifier::classifyParameters);
+    }
+    
+    private static List<TypeInfo> classifyParameters(String parameters) {
+        List<TypeInfo> infos = new ArrayList<>();
+        int index = 0;
+        while (index < parameters.length()) {
+            while (index < parameters.length() && Character.isWhitespace(parameters.charAt(index))) {
+                index++;
+            }
+            int start = index;
+            while (index < parameters.length() && !Character.isWhitespace(parameters.charAt(index))) {
+                index++;
+            }
+            if (start < index) {
+                infos.add(classify(parameters.substring(start, index)));
+            }
+        }
+        return Collections.unmodifiableList(infos);
+    }
+    
+    // 型名の最初の空白までを分類する
+    public static TypeInfo classifyType(String type) {
+        String typeName = String.valueOf(type);
+        int end = 0;
+        while (end < typeName.length() && !Character.isWhitespace(typeName.charAt(end))) {
+            end++;
+        }
+        return classify(end == typeName.length() ? typeName : typeName.substring(0, end));
+    }
+    
+    public static class TypeInfo {
+        private final String name;
+        private final int flags;
+        
+        private TypeInfo(String name, int flags) {
+            this.name = name;
+            this.flags = flags;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public boolean isSimple() {
+            return (flags & SIMPLE) != 0;
+        }
+        
+        public boolean containsPrimitive() {
+            return (flags & CONTAINS_PRIMITIVE) != 0;
+        }
+        
+        public boolean isPartOfPrimitive() {
+            return (flags & PART_OF_PRIMITIVE) != 0;
+        }
+        
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
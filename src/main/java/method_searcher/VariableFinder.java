@@ -17,7 +17,6 @@ import org.jtool.cfg.CFGStatement;
 import org.jtool.cfg.JFieldReference;
 import org.jtool.cfg.JVariableReference;
 import org.jtool.srcmodel.JavaClass;
-import org.jtool.srcmodel.JavaField;
 import org.jtool.srcmodel.JavaMethod;
 import org.jtool.srcmodel.JavaProject;
 import org.jtool.srcmodel.QualifiedName;
@@ -29,8 +28,17 @@ public class VariableFinder {
     
     private Set<ProjectVariable> inVariables = new HashSet<>();
     private Set<ProjectVariable> outVariables = new HashSet<>();
+    // 出力変数の展開で調べた型．展開されるメンバがなかった型も含む
+    private Set<String> expandedTypes = new HashSet<>();
+    
+    private AnalysisCache cache;
     
     public VariableFinder(JavaProject targetProject, JavaMethod targetMethod, CFG cfg) {
+        this(targetProject, targetMethod, cfg, null);
+    }
+    
+    public VariableFinder(JavaProject targetProject, JavaMethod targetMethod, CFG cfg, AnalysisCache cache) {
+        this.cache = cache;
         collectInVariables(targetProject, targetMethod, cfg);
         collectOutVariables(targetProject, targetMethod, cfg);
     }
@@ -104,7 +112,7 @@ public class VariableFinder {
                         String accessName = var.getName();
                         ProjectVariable tvar = new ProjectVariable(cfg, statement, var,
                                 Sort.FIELD, Direction.IN, qname, type, primitive, modifiers, accessName);
-                        tvar.setAccessor(ProjectVariable.findSetter(targetProject, targetClass, var));
+                        tvar.setAccessor(findSetter(targetProject, targetClass, var));
                         if (tvar.isTargetToBeRecorded() && (tvar.isPublic() || tvar.getAccessor() != null)) {
                             inVariables.add(tvar);
                         }
@@ -186,7 +194,7 @@ public class VariableFinder {
                     ProjectVariable tvar = new ProjectVariable(cfg, statement, var,
                             Sort.FIELD, Direction.OUT, qname, type, primitive, modifiers, accessName);
                     
-                    tvar.setAccessor(ProjectVariable.findGetter(targetProject, targetClass, var));
+                    tvar.setAccessor(findGetter(targetProject, targetClass, var));
                     if (tvar.isPublic() || tvar.getAccessor() != null) {
                         if (tvar.isTargetToBeRecorded()) {
                             outVariables.add(tvar);
@@ -202,6 +210,20 @@ public class VariableFinder {
         }
     }
     
+    private JavaMethod findSetter(JavaProject targetProject, JavaClass targetClass, JVariableReference var) {
+        if (cache != null) {
+            return cache.getAccessorIndex(targetClass).getSetter(var);
+        }
+        return ProjectVariable.findSetter(targetProject, targetClass, var);
+    }
+    
+    private JavaMethod findGetter(JavaProject targetProject, JavaClass targetClass, JVariableReference var) {
+        if (cache != null) {
+            return cache.getAccessorIndex(targetClass).getGetter(var);
+        }
+        return ProjectVariable.findGetter(targetProject, targetClass, var);
+    }
+    
     public List<ProjectVariable> getInVariables() {
         return new ArrayList<>(inVariables);
     }
@@ -210,54 +232,29 @@ public class VariableFinder {
         return new ArrayList<>(outVariables);
     }
     
+    public Set<String> getExpandedTypes() {
+        return new HashSet<>(expandedTypes);
+    }
+    
     private void setEnclosingVariables(JavaProject targetProject, ProjectVariable tvar) {
-        JavaClass jc = targetProject.getClass(tvar.getRawType());
-        if (jc == null) {
-            jc = targetProject.getExternalClass(tvar.getRawType());
-        }
-        if (jc == null) {
-            return;
-        }
-        
-        for (JavaField jf : jc.getFields()) {
-            boolean primitive = jf.isPrimitiveType();
-            if (jf.isPublic() && (primitive || ProjectVariable.seemsPrimitive(jf.getType()))) {
-                String qname = jf.getQualifiedName().fqn();
-                String type = jf.getType();
-                int modifiers = jf.getModifiers();
-                String access = jf.getName();
-                
-                Sort sort = null;
-                if (tvar.isField()) {
-                    sort = Sort.FFIELD;
-                } else {
-                    sort = Sort.RFIELD;
-                }
-                ProjectVariable tv = new ProjectVariable(tvar.getCFG(), tvar.getCFGNode(), tvar.getVariable(),
-                        sort, Direction.OUT, qname, type, primitive, modifiers, access);
-                tvar.addEnclosingVariable(tv);
-            }
+        EnclosingVariablesEvent event = new EnclosingVariablesEvent();
+        event.begin();
+        expandedTypes.add(tvar.getRawType());
+        ObservableMembers members;
+        if (cache != null) {
+            members = cache.getObservableMembers(tvar.getRawType());
+        } else {
+            members = ObservableMembers.collect(targetProject, tvar.getRawType());
         }
+        members.expand(tvar);
         
-        for (JavaMethod jm : jc.getMethods()) {
-            boolean primitive = jm.isPrimitiveReturnType();
-            if (jm.isPublic() && (primitive || ProjectVariable.seemsPrimitive(jm.getReturnType()))
-                    && jm.getParameterSize() == 0 && !jm.getName().equals("toString")) {
-                String qname = jm.getQualifiedName().fqn();
-                String type = jm.getReturnType();
-                int modifiers = jm.getModifiers();
-                String access = jm.getName() + "()";
-                
-                Sort sort = null;
-                if (tvar.isField()) {
-                    sort = Sort.FMETHOD;
-                } else {
-                    sort = Sort.RMETHOD;
-                }
-                ProjectVariable tv = new ProjectVariable(tvar.getCFG(), tvar.getCFGNode(), tvar.getVariable(),
-                        sort, Direction.OUT, qname, type, primitive, modifiers, access);
-                tvar.addEnclosingVariable(tv);
-            }
+        event.end();
+        if (event.shouldCommit()) {
+            event.variable = tvar.getQualifiedName();
+            event.type = tvar.getRawType();
+            event.members = members.getScannedNum();
+            event.expanded = tvar.getEnclosingVariables().size();
+            event.commit();
         }
     }
 }
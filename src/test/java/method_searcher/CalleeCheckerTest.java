@@ -0,0 +1,99 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import method_searcher.FailedMethods.Reason;
+import method_searcher.FailedMethods.Stage;
+
+// シグネチャと本体の AST だけで決まる組は，入出力変数を集める前に落とされる
+public class CalleeCheckerTest {
+
+    private static FixtureProject fixture;
+    private static FixtureProject outputs;
+    private static Map<String, CalleeMethod> calleeMethods = new HashMap<>();
+    private static Map<String, FailedMethods.Failure> failures = new HashMap<>();
+
+    @BeforeClass
+    public static void setUp() {
+        fixture = FixtureProject.build("calls");
+        CalleeChecker checker = new CalleeChecker();
+        new MethodFinder().stream(fixture.jproject, -1, 1).forEach(seq -> {
+            String pair = seq.caller().getName() + ">" + seq.callee().getName();
+            CalleeMethod calleeMethod = new CalleeMethod(seq);
+            calleeMethods.put(pair, calleeMethod);
+            FailedMethods.Failure failure = checker.evaluate(fixture.jproject, calleeMethod);
+            if (failure != null) {
+                failures.put(pair, failure);
+            }
+        });
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        fixture.unbuild();
+    }
+
+    @Test
+    public void rejectsStaticMethodWithoutParameters() {
+        assertRejectedBySignature("useNone>none", Reason.NOT_FOUND_INPUT_VARIABLE);
+    }
+
+    @Test
+    public void rejectsStaticVoidMethod() {
+        assertRejectedBySignature("reset>clear", Reason.NOT_FOUND_OUTPUT_VARIABLE);
+    }
+
+    @Test
+    public void rejectsVoidMethodWithoutFieldWrites() {
+        assertRejectedBySignature("scan>inspect", Reason.NOT_FOUND_OUTPUT_VARIABLE);
+    }
+    
+    @Test
+    public void passesVoidMethodWithFieldWritesToDataflow() {
+        // count は private で getter もないので，変数を集めた結果として出力変数がないと分かる
+        FailedMethods.Failure failure = failures.get("scan>bump");
+        assertNotNull(failure);
+        assertEquals(Reason.NOT_FOUND_OUTPUT_VARIABLE, failure.getReason());
+        assertEquals(Stage.DATAFLOW, failure.getStage());
+        assertTrue(calleeMethods.get("scan>bump").isAnalyzed());
+    }
+    
+    @Test
+    public void rejectsPrimitiveSignature() {
+        assertRejectedBySignature("record>add", Reason.NOT_OBJECT_INPUT);
+        assertRejectedBySignature("total>get", Reason.NOT_OBJECT_INPUT);
+    }
+
+    @Test
+    public void passesObjectSignatureToDataflow() {
+        for (String pair : new String[] { "both>viaFirst", "total>record" }) {
+            assertNotNull(pair, calleeMethods.get(pair));
+            FailedMethods.Failure failure = failures.get(pair);
+            assertTrue(pair, failure == null || failure.getStage() != Stage.SIGNATURE);
+            assertTrue(pair, calleeMethods.get(pair).isAnalyzed());
+        }
+    }
+
+    private static void assertRejectedBySignature(String pair, Reason reason) {
+        FailedMethods.Failure failure = failures.get(pair);
+        assertNotNull(pair, failure);
+        assertEquals(pair, reason, failure.getReason());
+        assertEquals(pair, Stage.SIGNATURE, failure.getStage());
+        assertFalse(pair, calleeMethods.get(pair).isAnalyzed());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.jtool.jxplatform.builder.ModelBuilder;
+import org.jtool.jxplatform.builder.ModelBuilderBatch;
+import org.jtool.srcmodel.JavaProject;
+
+// テストで使う小さなプロジェクト（src/test/resources/fixtures 以下）のモデル
+class FixtureProject {
+    
+    final ModelBuilder builder;
+    final JavaProject jproject;
+    
+    private FixtureProject(ModelBuilder builder, JavaProject jproject) {
+        this.builder = builder;
+        this.jproject = jproject;
+    }
+    
+    static FixtureProject build(String name) {
+        return build(name, fixturePath(name));
+    }
+    
+    static Path fixturePath(String name) {
+        return Paths.get(System.getProperty("method_searcher.fixtures", "src/test/resources/fixtures"), name);
+    }
+    
+    // 書き換えたコピーなど，fixtures 以外に置いたプロジェクトを読む
+    static FixtureProject build(String name, Path target) {
+        ModelBuilder builder = new ModelBuilderBatch();
+        builder.analyzeBytecode(false);
+        builder.useCache(false);
+        builder.setConsoleVisible(false);
+        
+        List<JavaProject> projects = builder.build(name, target.toString());
+        if (projects.isEmpty()) {
+            throw new IllegalStateException("Cannot build fixture project: " + name);
+        }
+        return new FixtureProject(builder, projects.get(0));
+    }
+    
+    void unbuild() {
+        builder.unbuild();
+    }
+}
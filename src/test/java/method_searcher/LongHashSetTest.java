@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class LongHashSetTest {
+
+    @Test
+    public void behavesLikeHashSet() {
+        Random random = new Random(1);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 200000; i++) {
+            // 重複が起きるよう値の範囲を絞る．再ハッシュも何度か起きる
+            long key = LongHashSet.pack(random.nextInt(300), random.nextInt(300));
+            assertEquals(expected.add(key), set.add(key));
+            long other = LongHashSet.pack(random.nextInt(300), random.nextInt(300));
+            assertEquals(expected.contains(other), set.contains(other));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long key : expected) {
+            assertTrue(set.contains(key));
+        }
+    }
+
+    @Test
+    public void keepsKeysAcrossRehash() {
+        LongHashSet set = new LongHashSet(1);
+        for (long key = 0; key < 10000; key++) {
+            assertTrue(set.add(key * 7919));
+        }
+        assertEquals(10000, set.size());
+        for (long key = 0; key < 10000; key++) {
+            assertTrue(set.contains(key * 7919));
+            assertFalse(set.contains(key * 7919 + 1));
+        }
+    }
+
+    @Test
+    public void packsPairsWithoutCollision() {
+        assertEquals(0L, LongHashSet.pack(0, 0));
+        assertTrue(LongHashSet.pack(1, 0) != LongHashSet.pack(0, 1));
+        assertEquals(((long)Integer.MAX_VALUE << 32) | Integer.MAX_VALUE,
+                LongHashSet.pack(Integer.MAX_VALUE, Integer.MAX_VALUE));
+
+        LongHashSet set = new LongHashSet();
+        Set<Long> keys = new HashSet<>();
+        for (int high = 0; high < 100; high++) {
+            for (int low = 0; low < 100; low++) {
+                long key = LongHashSet.pack(high, low);
+                keys.add(key);
+                set.add(key);
+            }
+        }
+        assertEquals(10000, keys.size());
+        assertEquals(10000, set.size());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.jtool.srcmodel.JavaClass;
+import org.jtool.srcmodel.JavaMethod;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+// fixtures/filters のメソッドに対するテストメソッドと対象メソッドの判定を確かめる
+public class MethodFilterTest {
+
+    private static FixtureProject fixture;
+
+    @BeforeClass
+    public static void setUp() {
+        fixture = FixtureProject.build("filters");
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        fixture.unbuild();
+    }
+
+    @Test
+    public void findsTestMethodsByNameAndAnnotation() {
+        MethodFilter filter = MethodFilter.defaults();
+        assertTrue(filter.isTestMethod(method("filters.AccountTest", "opens")));
+        assertTrue(filter.isTestMethod(method("filters.Audit", "run")));
+        assertFalse(filter.isTestMethod(method("filters.Audit", "report")));
+        assertFalse(filter.isTestMethod(method("filters.Account", "balance")));
+    }
+
+    @Test
+    public void findsTestMethodsBySuperClass() {
+        MethodFilter filter = new MethodFilter();
+        filter.getTestRules().addSuperClass("filters.Base");
+        assertTrue(filter.isTestMethod(method("filters.Derived", "count")));
+        assertFalse(filter.isTestMethod(method("filters.Base", "size")));
+    }
+
+    @Test
+    public void excludesConstructorsAndTestMethods() {
+        MethodFilter filter = MethodFilter.defaults();
+        assertTrue(filter.isTarget(method("filters.Account", "balance")));
+        assertFalse(filter.isTarget(constructor("filters.Account")));
+        assertFalse(filter.isTarget(method("filters.AccountTest", "opens")));
+        assertFalse(filter.isTarget(method("filters.Audit", "run")));
+    }
+
+    @Test
+    public void appliesVisibilityAndPatterns() {
+        MethodFilter filter = MethodFilter.defaults();
+        assertTrue(filter.isTarget(method("filters.Account", "peek")));
+        filter.setIncludeNonPublic(false);
+        assertFalse(filter.isTarget(method("filters.Account", "peek")));
+
+        filter = MethodFilter.defaults();
+        filter.getIncludeRules().addNamePattern("^filters\\.Audit#");
+        assertTrue(filter.isTarget(method("filters.Audit", "report")));
+        assertFalse(filter.isTarget(method("filters.Account", "balance")));
+
+        filter = MethodFilter.defaults();
+        filter.getExcludeRules().addNamePattern("#report\\(");
+        assertFalse(filter.isTarget(method("filters.Audit", "report")));
+        assertTrue(filter.isTarget(method("filters.Account", "balance")));
+    }
+
+    private static JavaMethod method(String className, String name) {
+        for (JavaMethod jm : findClass(className).getMethods()) {
+            if (!jm.isConstructor() && jm.getName().equals(name)) {
+                return jm;
+            }
+        }
+        throw new AssertionError("Not found: " + className + "#" + name);
+    }
+
+    private static JavaMethod constructor(String className) {
+        for (JavaMethod jm : findClass(className).getMethods()) {
+            if (jm.isConstructor()) {
+                return jm;
+            }
+        }
+        throw new AssertionError("Not found constructor: " + className);
+    }
+
+    private static JavaClass findClass(String className) {
+        JavaClass jc = fixture.jproject.getClass(className);
+        if (jc == null) {
+            throw new AssertionError("Not found: " + className);
+        }
+        return jc;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+// fixtures/calls の呼び出し関係に対する系列の列挙と重複の除去を確かめる
+public class MethodFinderTest {
+    
+    private static FixtureProject fixture;
+    
+    @BeforeClass
+    public static void setUp() {
+        fixture = FixtureProject.build("calls");
+    }
+    
+    @AfterClass
+    public static void tearDown() {
+        fixture.unbuild();
+    }
+    
+    @Test
+    public void findsDirectCallers() {
+        MethodFinder finder = new MethodFinder();
+        List<MethodSeq> seqs = find(finder, 1);
+        
+        assertEquals(7, finder.getCandidateNum());
+        assertEquals(new HashSet<>(Arrays.asList(
+                "record>add", "total>add", "clear>add", "viaFirst>add", "viaSecond>add", "total>get",
+                "recordTwice>record", "total>record", "useNone>none", "reset>clear",
+                "both>viaFirst", "both>viaSecond")), new HashSet<>(pairs(seqs)));
+        assertEquals(12, seqs.size());
+        assertEquals(12, finder.getRawPairNum());
+        assertIndexed(seqs);
+    }
+    
+    @Test
+    public void keepsPairsReachedByTwoPaths() {
+        MethodFinder finder = new MethodFinder();
+        finder.setDeduplicatePairs(false);
+        List<MethodSeq> seqs = find(finder, 2);
+        
+        // both から add へは viaFirst と viaSecond を経由する2つの系列がある
+        assertEquals(1, finder.getCandidateNum());
+        assertEquals(5, seqs.size());
+        assertEquals(2, Collections.frequency(pairs(seqs), "both>add"));
+        assertEquals(5, finder.getRawPairNum());
+        assertEquals(5, finder.getPairNum());
+        assertIndexed(seqs);
+    }
+    
+    @Test
+    public void deduplicatesPairsReachedByTwoPaths() {
+        MethodFinder finder = new MethodFinder();
+        List<MethodSeq> seqs = find(finder, 2);
+        
+        assertEquals(new HashSet<>(Arrays.asList("recordTwice>add", "total>add", "reset>add", "both>add")),
+                new HashSet<>(pairs(seqs)));
+        assertEquals(4, seqs.size());
+        assertEquals(5, finder.getRawPairNum());
+        assertEquals(4, finder.getPairNum());
+        assertIndexed(seqs);
+    }
+    
+    @Test
+    public void groupsSequencesByCalleeClass() {
+        List<String> expected = names(find(new MethodFinder(), 1));
+        
+        MethodFinder finder = new MethodFinder();
+        finder.setGroupByClass(true);
+        List<MethodSeq> seqs = find(finder, 1);
+        
+        List<String> actual = names(seqs);
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+        assertIndexed(seqs);
+        
+        // 一度終わったクラスがもう一度現れることはない
+        Set<String> finished = new HashSet<>();
+        String className = null;
+        for (MethodSeq seq : seqs) {
+            if (!seq.getClassName().equals(className)) {
+                assertFalse(seq.getClassName(), finished.contains(seq.getClassName()));
+                if (className != null) {
+                    finished.add(className);
+                }
+                className = seq.getClassName();
+            }
+        }
+    }
+    
+    private static List<MethodSeq> find(MethodFinder finder, int callChainNum) {
+        return finder.stream(fixture.jproject, -1, callChainNum).collect(Collectors.toList());
+    }
+    
+    private static List<String> pairs(List<MethodSeq> seqs) {
+        List<String> pairs = new ArrayList<>();
+        for (MethodSeq seq : seqs) {
+            pairs.add(seq.caller().getName() + ">" + seq.callee().getName());
+        }
+        return pairs;
+    }
+    
+    private static List<String> names(List<MethodSeq> seqs) {
+        List<String> names = new ArrayList<>();
+        for (MethodSeq seq : seqs) {
+            names.add(seq.methodChain1().stream().map(jm -> jm.getName()).collect(Collectors.joining(",")));
+        }
+        return names;
+    }
+    
+    // 通し番号は列挙順に 0 から振られる
+    private static void assertIndexed(List<MethodSeq> seqs) {
+        for (int i = 0; i < seqs.size(); i++) {
+            assertEquals(i, seqs.get(i).getIndex());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import method_searcher.FailedMethods.Reason;
+
+// 展開されるメンバがなかった出力変数の型を変えると，キャッシュした組が検査し直される
+public class ResultStoreTest {
+
+    private static final String PAIR = "put>wrap";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reusesPairWhileTypeIsUnchanged() throws IOException {
+        Path target = copyFixture();
+        Path cacheDir = folder.newFolder("cache").toPath();
+
+        PairOutcome outcome = check(target, cacheDir);
+        assertEquals(Reason.NOT_FOUND_OUTPUT_VARIABLE, outcome.getFailure().getReason());
+
+        FixtureProject fixture = FixtureProject.build("store", target);
+        try {
+            PairOutcome reused = ResultStore.open(cacheDir, fixture.jproject).lookup(findSeq(fixture));
+            assertNotNull(reused);
+            assertEquals(Reason.NOT_FOUND_OUTPUT_VARIABLE, reused.getFailure().getReason());
+        } finally {
+            fixture.unbuild();
+        }
+    }
+
+    @Test
+    public void recomputesPairWhenEmptyTypeGainsGetter() throws IOException {
+        Path target = copyFixture();
+        Path cacheDir = folder.newFolder("cache").toPath();
+        check(target, cacheDir);
+
+        // Box は public な基本型のメンバを持たないので，wrap の戻り値は展開されない
+        Path box = target.resolve("src/store/Box.java");
+        String source = new String(Files.readAllBytes(box), StandardCharsets.UTF_8);
+        source = source.substring(0, source.lastIndexOf('}')) + "    public int size() {\n        return 1;\n    }\n}\n";
+        Files.write(box, source.getBytes(StandardCharsets.UTF_8));
+
+        FixtureProject fixture = FixtureProject.build("store", target);
+        try {
+            assertNull(ResultStore.open(cacheDir, fixture.jproject).lookup(findSeq(fixture)));
+        } finally {
+            fixture.unbuild();
+        }
+    }
+
+    @Test
+    public void writesEntriesInSortedOrder() throws IOException {
+        Path target = copyFixture();
+        Path cacheDir = folder.newFolder("cache").toPath();
+        check(target, cacheDir);
+
+        List<String> lines = Files.readAllLines(cacheDir.resolve("store_results.cache"), StandardCharsets.UTF_8);
+        List<String> entries = new ArrayList<>(lines.subList(1, lines.size()));
+        assertTrue(entries.size() > 0);
+        List<String> sorted = new ArrayList<>(entries);
+        sorted.sort(null);
+        assertEquals(sorted, entries);
+    }
+
+    private PairOutcome check(Path target, Path cacheDir) throws IOException {
+        FixtureProject fixture = FixtureProject.build("store", target);
+        try {
+            ResultStore store = ResultStore.open(cacheDir, fixture.jproject);
+            PairEvaluator evaluator = new PairEvaluator(new AnalysisCache(fixture.jproject), new CalleeChecker());
+            evaluator.setResultStore(store);
+            PairOutcome outcome = null;
+            for (MethodSeq seq : new MethodFinder().stream(fixture.jproject, -1, 1).collect(Collectors.toList())) {
+                PairOutcome result = evaluator.evaluate(seq);
+                if (pair(seq).equals(PAIR)) {
+                    outcome = result;
+                }
+            }
+            store.save();
+            assertNotNull(outcome);
+            return outcome;
+        } finally {
+            fixture.unbuild();
+        }
+    }
+
+    private static MethodSeq findSeq(FixtureProject fixture) {
+        return new MethodFinder().stream(fixture.jproject, -1, 1)
+                .filter(seq -> pair(seq).equals(PAIR))
+                .findFirst().get();
+    }
+
+    private static String pair(MethodSeq seq) {
+        return seq.caller().getName() + ">" + seq.callee().getName();
+    }
+
+    private Path copyFixture() throws IOException {
+        Path source = FixtureProject.fixturePath("store");
+        Path target = folder.newFolder("store").toPath();
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                Path copy = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(path, copy);
+                }
+            }
+        }
+        return target;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+// 組み合わせられない検査の進め方は，黙って一方を無視せずに拒否する
+public class SearchOptionsTest {
+
+    @Test
+    public void acceptsEachModeAlone() {
+        assertTrue(parse("-lowMemory", "-checkThreads", "4").isLowMemory());
+        SearchOptions options = parse("-pipeline", "4", "-queue", "128");
+        assertEquals(4, options.getPipelineWorkers());
+        assertEquals(128, options.getQueueSize());
+    }
+
+    @Test
+    public void rejectsPipelineWithLowMemory() {
+        assertRejected("-pipeline", "4", "-lowMemory");
+        assertRejected("-lowMemory", "-pipeline", "4");
+    }
+
+    @Test
+    public void rejectsPipelineWithCheckThreads() {
+        assertRejected("-pipeline", "4", "-checkThreads", "2");
+    }
+
+    @Test
+    public void rejectsQueueWithoutPipeline() {
+        assertRejected("-queue", "128");
+    }
+
+    @Test
+    public void rejectsShardsWithOtherModes() {
+        assertRejected("-shards", "2", "-lowMemory");
+        assertRejected("-shards", "2", "-pipeline", "4");
+    }
+
+    private static SearchOptions parse(String... args) {
+        return SearchOptions.parse(args, 0);
+    }
+
+    private static void assertRejected(String... args) {
+        try {
+            parse(args);
+            fail(String.join(" ", args));
+        } catch (IllegalArgumentException e) {
+            // 期待どおり
+        }
+    }
+}
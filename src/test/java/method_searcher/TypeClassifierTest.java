@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2024
+ *  Software Science and Technology Lab., Ritsumeikan University
+ */
+
+package method_searcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class TypeClassifierTest {
+
+    // TypeClassifier 導入前に CalleeChecker が使っていた表
+    private final static String[] primitiveTypes = {
+        "java.lang.String", "string", "char", "java.lang.Byte", "byte[]", "byte", "java.lang.Short", "short",
+        "java.lang.Number", "java.lang.Integer", "integer", "int", "java.lang.Long", "long", "java.lang.Float",
+        "float", "java.lang.Double", "double", "java.lang.Boolean", "boolean",
+    };
+
+    private final static String[] types = {
+        "int", "long", "boolean", "char", "byte", "byte[]", "int[]", "char[][]", "java.lang.String",
+        "java.lang.String[]", "java.lang.Integer", "java.lang.Number", "java.lang.Object", "java.util.List",
+        "java.util.List<java.lang.String>", "java.util.Map<java.lang.String,java.lang.Integer>", "bank.Account",
+        "inventory.Item[]", "Integer", "in", "t", "g", "", "java.lang", "void",
+    };
+
+    private final static String[] qnames = {
+        "bank.Account#deposit( long )!amount$1",
+        "bank.Bank#transfer( bank.Account bank.Account long )!from$1",
+        "bank.Bank#open( java.lang.String )!name$1",
+        "bank.Bank#size( )",
+        "bank.Bank#size()",
+        "bank.Account.balance",
+        "inventory.Order#add( inventory.Item int )!item$1",
+        "inventory.Warehouse#find( java.util.List<java.lang.String> )!keys$1",
+        "Foo#bar(  int   char[] )",
+        "Foo#bar(int,java.lang.String)",
+        "Foo#(",
+        "Foo#)(",
+    };
+
+    @Test
+    public void matchesOldRegexForKnownNames() {
+        for (String qname : qnames) {
+            for (String type : types) {
+                assertSameAsRegex(qname, type);
+            }
+        }
+    }
+
+    @Test
+    public void matchesOldRegexForRandomNames() {
+        String[] parts = { "(", ")", " ", "  ", "\t", "#m", "!x$1", "." };
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder qname = new StringBuilder("p.C");
+            int num = random.nextInt(8);
+            for (int j = 0; j < num; j++) {
+                if (random.nextBoolean()) {
+                    qname.append(parts[random.nextInt(parts.length)]);
+                } else {
+                    qname.append(types[random.nextInt(types.length)]);
+                }
+            }
+            String type = types[random.nextInt(types.length)];
+            if (random.nextInt(4) == 0) {
+                type = type + " " + types[random.nextInt(types.length)];
+            }
+            assertSameAsRegex(qname.toString(), type);
+        }
+    }
+
+    @Test
+    public void sharesSignatureTypesPerParameterList() {
+        List<TypeClassifier.TypeInfo> infos1 = TypeClassifier.classifySignature("bank.Bank#transfer( bank.Account long )!from$1");
+        List<TypeClassifier.TypeInfo> infos2 = TypeClassifier.classifySignature("bank.Bank#transfer( bank.Account long )!to$2");
+        assertTrue(infos1 == infos2);
+        assertEquals(2, infos1.size());
+        assertEquals("bank.Account", infos1.get(0).getName());
+        assertFalse(infos1.get(0).isPartOfPrimitive());
+        assertTrue(infos1.get(1).isPartOfPrimitive());
+        assertTrue(TypeClassifier.classifySignature("bank.Account.balance").isEmpty());
+    }
+
+    @Test
+    public void classifiesSimpleTypes() {
+        assertTrue(ProjectVariable.seemsPrimitive("java.lang.String"));
+        assertTrue(ProjectVariable.seemsPrimitive("java.lang.Double"));
+        assertFalse(ProjectVariable.seemsPrimitive("java.lang.Boolean"));
+        assertFalse(ProjectVariable.seemsPrimitive("int"));
+        assertFalse(ProjectVariable.seemsPrimitive(null));
+    }
+
+    private static void assertSameAsRegex(String qname, String type) {
+        ProjectVariable var = new ProjectVariable(null, null, null, ProjectVariable.Sort.PARAMETER,
+                ProjectVariable.Direction.IN, qname, type, false, 0, "x");
+        String name = var.toString();
+        assertEquals(name, isObjectInputByRegex(name), var.hasObjectSignatureType());
+        assertEquals(name, isPrimitiveOutputByRegex(name), var.hasPrimitiveOutputType());
+    }
+
+    private static boolean isObjectInputByRegex(String name) {
+        Matcher matcher = Pattern.compile("\\((.*?)\\)").matcher(name);
+        if (matcher.find()) {
+            for (String type : matcher.group(1).split("\\s+")) {
+                boolean primitive = false;
+                for (String primitiveType : primitiveTypes) {
+                    if (primitiveType.contains(type)) {
+                        primitive = true;
+                    }
+                }
+                if (!primitive) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPrimitiveOutputByRegex(String name) {
+        Matcher matcher = Pattern.compile("@(\\S+)").matcher(name);
+        if (matcher.find()) {
+            for (String primitiveType : primitiveTypes) {
+                if (matcher.group(1).contains(primitiveType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
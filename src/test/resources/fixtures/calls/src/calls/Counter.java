@@ -0,0 +1,14 @@
+package calls;
+
+public class Counter {
+    
+    private int count;
+    
+    public void add(int n) {
+        count = count + n;
+    }
+    
+    public int get() {
+        return count;
+    }
+}
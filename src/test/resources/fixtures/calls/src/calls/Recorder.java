@@ -0,0 +1,35 @@
+package calls;
+
+public class Recorder {
+    
+    public void record(Counter counter) {
+        counter.add(1);
+    }
+    
+    public void recordTwice(Counter counter) {
+        record(counter);
+        record(counter);
+    }
+    
+    public int total(Counter counter) {
+        record(counter);
+        counter.add(2);
+        return counter.get();
+    }
+    
+    public static int none() {
+        return 0;
+    }
+    
+    public static void clear(Counter counter) {
+        counter.add(0);
+    }
+    
+    public int useNone() {
+        return none();
+    }
+    
+    public void reset(Counter counter) {
+        clear(counter);
+    }
+}
@@ -0,0 +1,17 @@
+package calls;
+
+public class Router {
+    
+    public void viaFirst(Counter counter) {
+        counter.add(1);
+    }
+    
+    public void viaSecond(Counter counter) {
+        counter.add(2);
+    }
+    
+    public void both(Counter counter) {
+        viaFirst(counter);
+        viaSecond(counter);
+    }
+}
@@ -0,0 +1,18 @@
+package filters;
+
+public class Account {
+    
+    private int balance;
+    
+    public Account(int balance) {
+        this.balance = balance;
+    }
+    
+    public int balance() {
+        return balance;
+    }
+    
+    int peek() {
+        return balance;
+    }
+}
@@ -0,0 +1,8 @@
+package filters;
+
+public class AccountTest {
+    
+    public void opens() {
+        new Account(1).balance();
+    }
+}
@@ -0,0 +1,13 @@
+package filters;
+
+public class Audit {
+    
+    @Test
+    public void run() {
+        new Account(0).balance();
+    }
+    
+    public int report(Account account) {
+        return account.balance();
+    }
+}
@@ -0,0 +1,8 @@
+package filters;
+
+public class Base {
+    
+    public int size() {
+        return 0;
+    }
+}
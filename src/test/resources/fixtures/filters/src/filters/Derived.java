@@ -0,0 +1,8 @@
+package filters;
+
+public class Derived extends Base {
+    
+    public int count() {
+        return size();
+    }
+}
@@ -0,0 +1,4 @@
+package filters;
+
+public @interface Test {
+}
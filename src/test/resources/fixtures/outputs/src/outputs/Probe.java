@@ -0,0 +1,20 @@
+package outputs;
+
+public class Probe {
+    
+    private int count;
+    
+    public void inspect(Probe other, int n) {
+        int local = n;
+        local++;
+    }
+    
+    public void bump(Probe other, int n) {
+        count = count + n;
+    }
+    
+    public void scan() {
+        inspect(this, 1);
+        bump(this, 2);
+    }
+}
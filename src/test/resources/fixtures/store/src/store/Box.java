@@ -0,0 +1,10 @@
+package store;
+
+public class Box {
+    
+    private Object value;
+    
+    public void set(Object value) {
+        this.value = value;
+    }
+}